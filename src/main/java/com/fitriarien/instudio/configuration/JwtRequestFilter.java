@@ -1,9 +1,16 @@
 package com.fitriarien.instudio.configuration;
 
+import com.fitriarien.instudio.service.MetricsSource;
+import com.fitriarien.instudio.service.TokenBlacklistService;
+import com.fitriarien.instudio.service.TokenVersionService;
 import com.fitriarien.instudio.service.impl.AuthServiceImpl;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,9 +23,21 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 @Component
-public class JwtRequestFilter extends OncePerRequestFilter {
+public class JwtRequestFilter extends OncePerRequestFilter implements MetricsSource {
+
+	// endpoints that WebSecurityConfig permits without authentication
+	public static final String[] PUBLIC_PATHS = {"/api/auth/login", "/api/auth/refresh", "/api/users"};
+
+	private static final Set<String> PUBLIC_PATH_SET = Arrays.stream(PUBLIC_PATHS).collect(Collectors.toSet());
 
 	@Autowired
 	private AuthServiceImpl authServiceImpl;
@@ -26,38 +45,83 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 	@Autowired
 	private JwtTokenUtil jwtTokenUtil;
 
+	@Autowired
+	private TokenBlacklistService tokenBlacklistService;
+
+	@Autowired
+	private TokenVersionService tokenVersionService;
+
+	// when enabled, the principal is built from the token claims instead of being loaded from the database
+	@Value("${jwt.stateless:false}")
+	private boolean stateless;
+
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder skipped = new LongAdder();
+	private final LongAdder revoked = new LongAdder();
+	private final LongAdder revocationNanos = new LongAdder();
+	private final LongAdder verificationNanos = new LongAdder();
+	private final LongAdder principalNanos = new LongAdder();
+
+	private static final RateLimitedLogger invalidTokenLog =
+			new RateLimitedLogger(LoggerFactory.getLogger(JwtRequestFilter.class), Level.INFO, Duration.ofSeconds(10));
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		boolean skip = HttpMethod.OPTIONS.matches(request.getMethod())
+				|| PUBLIC_PATH_SET.contains(request.getRequestURI().substring(request.getContextPath().length()));
+		if (skip) {
+			skipped.increment();
+		}
+		return skip;
+	}
+
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
 			throws ServletException, IOException {
-		//final String requestTokenHeader = request.getHeader("Authorization");
-		final String requestTokenHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
-
-		String username = null;
-		String jwtToken = null;
+		requests.increment();
 
 		// JWT Token is in the form "Bearer token". Remove Bearer word and get only the Token
-		if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
-			jwtToken = requestTokenHeader.substring(7);
-
-			try {
-				username = jwtTokenUtil.getUsernameFromToken(jwtToken);
-			} catch (IllegalArgumentException e) {
-				logger.info("Unable to get JWT Token");
-			} catch (ExpiredJwtException e) {
-				logger.info("JWT Token has expired");
-			}
+		final String jwtToken = jwtTokenUtil.extractToken(request);
+		if (jwtToken == null) {
+			logger.debug("JWT Token does not begin with Bearer String");
+			chain.doFilter(request, response);
+			return;
+		}
+
+		// 1. revocation check
+		long start = System.nanoTime();
+		boolean blacklisted = tokenBlacklistService.isBlacklisted(jwtToken);
+		revocationNanos.add(System.nanoTime() - start);
+		if (blacklisted) {
+			revoked.increment();
+			response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+			return;
+		}
 
-		} else {
-			logger.warn("JWT Token does not begin with Bearer String");
+		// 2. signature and expiration
+		start = System.nanoTime();
+		Claims claims = null;
+		try {
+			claims = jwtTokenUtil.verify(jwtToken);
+		} catch (IllegalArgumentException e) {
+			invalidTokenLog.log("Unable to get JWT Token");
+		} catch (ExpiredJwtException e) {
+			invalidTokenLog.log("JWT Token has expired");
 		}
+		verificationNanos.add(System.nanoTime() - start);
 
-		// Once we get the token validate it.
-		if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+		// 3. principal
+		if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+			start = System.nanoTime();
 
-			UserDetails userDetails = this.authServiceImpl.loadUserByUsername(username);
+			UserPrincipal principal = stateless ? jwtTokenUtil.getPrincipalFromClaims(claims) : null;
+			// a principal rebuilt from claims carries the token's own version, so check it against the user's current one
+			boolean currentVersion = principal == null
+					|| tokenVersionService.isCurrent(principal.getId(), principal.getTokenVersion());
+			UserDetails userDetails = principal != null ? principal : this.authServiceImpl.loadUserByUsername(claims.getSubject());
 
 			// if token is valid configure Spring Security to manually set authentication
-			if (jwtTokenUtil.validateToken(jwtToken, userDetails)) {
+			if (currentVersion && jwtTokenUtil.validateToken(claims, userDetails)) {
 
 				UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new
 						UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -67,8 +131,27 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 				// So it passes the Spring Security Configurations successfully.
 				SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
 			}
+			principalNanos.add(System.nanoTime() - start);
 		}
 
 		chain.doFilter(request, response);
 	}
-}
\ No newline at end of file
+
+	@Override
+	public String getMetricsName() {
+		return "authFilter";
+	}
+
+	@Override
+	public Map<String, Object> getMetrics() {
+		long count = requests.sum();
+		Map<String, Object> metrics = new LinkedHashMap<>();
+		metrics.put("requests", count);
+		metrics.put("skipped", skipped.sum());
+		metrics.put("revoked", revoked.sum());
+		metrics.put("avgRevocationNanos", count == 0 ? 0 : revocationNanos.sum() / count);
+		metrics.put("avgVerificationNanos", count == 0 ? 0 : verificationNanos.sum() / count);
+		metrics.put("avgPrincipalNanos", count == 0 ? 0 : principalNanos.sum() / count);
+		return metrics;
+	}
+}
@@ -1,15 +1,25 @@
 package com.fitriarien.instudio.configuration;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import javax.servlet.http.HttpServletRequest;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -18,11 +28,44 @@ public class JwtTokenUtil implements Serializable {
 
 	private static final long serialVersionUID = -2550185165626007488L;
 
-	public static final long JWT_TOKEN_VALIDITY = 30 * 24 * 60 * 60;
+	public static final String CLAIM_USER_ID = "uid";
+	public static final String CLAIM_ROLE = "role";
+	public static final String CLAIM_STATUS = "status";
+	public static final String CLAIM_TOKEN_VERSION = "ver";
 
 	@Value("${jwt.secret}")
 	private String secret;
 
+	// access tokens are short-lived, so revoked ones only need to be remembered for this long
+	@Value("${jwt.access-token-validity-seconds:900}")
+	private long accessTokenValidity;
+
+	@Value("${jwt.claims-cache.max-size:10000}")
+	private int claimsCacheMaxSize;
+
+	// verified claims keyed by token digest, so the signature is checked once per token instead of once per call;
+	// access-ordered, so a full cache drops its least recently used token in O(1) instead of scanning for expired ones
+	private final transient Map<String, Claims> claimsCache = Collections.synchronizedMap(
+			new LinkedHashMap<String, Claims>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+					return size() > claimsCacheMaxSize;
+				}
+			});
+
+	//retrieve the bearer token from the Authorization header
+	public String extractToken(HttpServletRequest request) {
+		final String bearerToken = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+		if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
+			return bearerToken.substring(7);
+		}
+
+		return null;
+	}
+
 	//retrieve username from jwt token
 	public String getUsernameFromToken(String token) {
 		return getClaimFromToken(token, Claims::getSubject);
@@ -34,24 +77,95 @@ public class JwtTokenUtil implements Serializable {
 	}
 
 	public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-		final Claims claims = getAllClaimsFromToken(token);
+		final Claims claims = verify(token);
 		return claimsResolver.apply(claims);
 	}
 
+	//verify signature and expiration of the token, parsing it only on the first call
+	public Claims verify(String token) {
+		final String key = digest(token);
+		Claims claims = claimsCache.get(key);
+
+		if (claims != null) {
+			if (!isExpired(claims)) {
+				return claims;
+			}
+			claimsCache.remove(key, claims);
+			throw new ExpiredJwtException(null, claims, "JWT Token has expired");
+		}
+
+		claims = getAllClaimsFromToken(token);
+		claimsCache.put(key, claims);
+		return claims;
+	}
+
+	//fixed-size SHA-256 digest of the token, used as key instead of the full token string
+	public static String digest(String token) {
+		return digest(token.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	public static String digest(byte[] bytes) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	//decoded signature of the token, or null when it has none. The parser accepts several spellings of the same
+	//signature (padding, the standard base64 alphabet, unused trailing bits), so anything that has to recognise a
+	//token again, like revocation, must key on these bytes and not on the token text. Decoded with the parser's own
+	//codec so both agree on what the signature is.
+	public static byte[] getSignatureBytes(String token) {
+		final int dot = token.lastIndexOf('.');
+		if (dot < 0 || dot == token.length() - 1) {
+			return null;
+		}
+		try {
+			byte[] signature = TextCodec.BASE64URL.decode(token.substring(dot + 1));
+			return signature == null || signature.length == 0 ? null : signature;
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
 	//for retrieving any information from token we will need the secret key
 	private Claims getAllClaimsFromToken(String token) {
 		return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
 	}
 
 	//check if the token has expired
-	private Boolean isTokenExpired(String token) {
-		final Date expiration = getExpirationDateFromToken(token);
-		return expiration.before(new Date());
+	private boolean isExpired(Claims claims) {
+		return claims.getExpiration().before(new Date());
+	}
+
+	//rebuild the principal from verified claims, or null for tokens issued without user claims
+	public UserPrincipal getPrincipalFromClaims(Claims claims) {
+		final String userId = claims.get(CLAIM_USER_ID, String.class);
+		if (userId == null) {
+			return null;
+		}
+		return new UserPrincipal(userId, claims.getSubject(), null,
+				claims.get(CLAIM_ROLE, String.class), claims.get(CLAIM_STATUS, Long.class), getTokenVersion(claims));
+	}
+
+	//token version the token was issued with, 0 for tokens issued before versioning
+	public long getTokenVersion(Claims claims) {
+		final Long version = claims.get(CLAIM_TOKEN_VERSION, Long.class);
+		return version == null ? 0 : version;
 	}
 
 	//generate token for user
 	public String generateToken(UserDetails userDetails) {
 		Map<String, Object> claims = new HashMap<>();
+		if (userDetails instanceof UserPrincipal) {
+			UserPrincipal principal = (UserPrincipal) userDetails;
+			claims.put(CLAIM_USER_ID, principal.getId());
+			claims.put(CLAIM_ROLE, principal.getRole());
+			claims.put(CLAIM_STATUS, principal.getStatus());
+			claims.put(CLAIM_TOKEN_VERSION, principal.getTokenVersion());
+		}
 		return doGenerateToken(claims, userDetails.getUsername());
 	}
 
@@ -63,14 +177,22 @@ public class JwtTokenUtil implements Serializable {
 	private String doGenerateToken(Map<String, Object> claims, String subject) {
 
 		return Jwts.builder().setClaims(claims).setSubject(subject).setIssuedAt(new Date(System.currentTimeMillis()))
-				.setExpiration(new Date(System.currentTimeMillis() + JWT_TOKEN_VALIDITY * 1000))
+				.setExpiration(new Date(System.currentTimeMillis() + accessTokenValidity * 1000))
 				.signWith(SignatureAlgorithm.HS512, secret).compact();
 	}
 
 	//validate token
 	public Boolean validateToken(String token, UserDetails userDetails) {
-		final String username = getUsernameFromToken(token);
-		return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+		return validateToken(verify(token), userDetails);
+	}
+
+	//validate already verified claims against the loaded user
+	public Boolean validateToken(Claims claims, UserDetails userDetails) {
+		if (userDetails instanceof UserPrincipal
+				&& getTokenVersion(claims) < ((UserPrincipal) userDetails).getTokenVersion()) {
+			return false;
+		}
+		return (claims.getSubject().equals(userDetails.getUsername()) && !isExpired(claims));
 	}
 
-}
\ No newline at end of file
+}
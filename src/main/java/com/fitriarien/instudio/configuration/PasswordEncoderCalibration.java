@@ -0,0 +1,54 @@
+package com.fitriarien.instudio.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports how long one BCrypt hash takes at each cost on this machine, to pick security.password.bcrypt-strength.
+ */
+@Component
+@ConditionalOnProperty(name = "security.password.calibrate", havingValue = "true")
+public class PasswordEncoderCalibration {
+
+	private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderCalibration.class);
+
+	private static final int SAMPLES = 3;
+
+	@Value("${security.password.calibrate.min-strength:8}")
+	private int minStrength;
+
+	@Value("${security.password.calibrate.max-strength:14}")
+	private int maxStrength;
+
+	@Value("${security.password.calibrate.target-ms:250}")
+	private long targetMillis;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void calibrate() {
+		int recommended = minStrength;
+		for (int strength = minStrength; strength <= maxStrength; strength++) {
+			BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+			String hash = encoder.encode("calibration");
+
+			long start = System.nanoTime();
+			for (int i = 0; i < SAMPLES; i++) {
+				encoder.matches("calibration", hash);
+			}
+			long millis = (System.nanoTime() - start) / SAMPLES / 1_000_000;
+
+			logger.info("BCrypt strength {}: {} ms per hash", strength, millis);
+			if (millis <= targetMillis) {
+				recommended = strength;
+			} else {
+				break;
+			}
+		}
+		logger.info("Highest BCrypt strength within {} ms per hash: {}", targetMillis, recommended);
+	}
+}
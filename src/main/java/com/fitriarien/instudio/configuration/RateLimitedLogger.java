@@ -0,0 +1,76 @@
+package com.fitriarien.instudio.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Emits a repetitive log event at most once per interval and reports how many were dropped in between, so a flood of
+ * identical events (failed logins, expired tokens) costs a counter increment instead of a log write each.
+ */
+public class RateLimitedLogger {
+
+    private final Logger logger;
+
+    private final Level level;
+
+    private final long intervalNanos;
+
+    private final AtomicLong nextEmission = new AtomicLong(System.nanoTime());
+
+    private final LongAdder suppressed = new LongAdder();
+
+    public RateLimitedLogger(Logger logger, Level level, Duration interval) {
+        this.logger = logger;
+        this.level = level;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public void log(String format, Object... arguments) {
+        if (!isEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long next = nextEmission.get();
+        if (now - next < 0 || !nextEmission.compareAndSet(next, now + intervalNanos)) {
+            suppressed.increment();
+            return;
+        }
+        long dropped = suppressed.sumThenReset();
+        String message = dropped > 0 ? format + " (" + dropped + " similar messages suppressed)" : format;
+        switch (level) {
+            case ERROR:
+                logger.error(message, arguments);
+                break;
+            case WARN:
+                logger.warn(message, arguments);
+                break;
+            case INFO:
+                logger.info(message, arguments);
+                break;
+            case DEBUG:
+                logger.debug(message, arguments);
+                break;
+            default:
+                logger.trace(message, arguments);
+        }
+    }
+
+    private boolean isEnabled() {
+        switch (level) {
+            case ERROR:
+                return logger.isErrorEnabled();
+            case WARN:
+                return logger.isWarnEnabled();
+            case INFO:
+                return logger.isInfoEnabled();
+            case DEBUG:
+                return logger.isDebugEnabled();
+            default:
+                return logger.isTraceEnabled();
+        }
+    }
+}
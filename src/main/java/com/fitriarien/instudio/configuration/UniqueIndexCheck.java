@@ -0,0 +1,77 @@
+package com.fitriarien.instudio.configuration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Refuses to start when a unique index the code relies on is missing. ddl-auto=update only logs a warning when it
+ * can't create one, which happens when the column already holds duplicates, and the duplicate checks in register and
+ * product create/update then silently stop working.
+ */
+@Component
+public class UniqueIndexCheck {
+
+	private static final String[][] UNIQUE_INDEXES = {
+			// table, column, index
+			{"users", "username", "uk_users_username"},
+			{"products", "product_name", "uk_products_product_name"}
+	};
+
+	private static final int MAX_REPORTED_DUPLICATES = 10;
+
+	@Autowired
+	private DataSource dataSource;
+
+	// not used, but makes sure Hibernate has updated the schema before it is checked
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@PostConstruct
+	public void check() throws SQLException {
+		try (Connection connection = dataSource.getConnection()) {
+			for (String[] index : UNIQUE_INDEXES) {
+				if (!hasUniqueIndex(connection, index[0], index[2])) {
+					throw new IllegalStateException(String.format(
+							"Unique index %s on %s.%s is missing. Remove the duplicate values %s and restart, "
+									+ "so the schema update can create it.",
+							index[2], index[0], index[1], findDuplicates(connection, index[0], index[1])));
+				}
+			}
+		}
+	}
+
+	private boolean hasUniqueIndex(Connection connection, String table, String indexName) throws SQLException {
+		try (ResultSet indexes = connection.getMetaData()
+				.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, true, true)) {
+			while (indexes.next()) {
+				if (indexName.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	// table and column come from UNIQUE_INDEXES above, never from input
+	private List<String> findDuplicates(Connection connection, String table, String column) throws SQLException {
+		List<String> duplicates = new ArrayList<>();
+		try (Statement statement = connection.createStatement();
+			 ResultSet rows = statement.executeQuery("SELECT " + column + " FROM " + table
+					 + " GROUP BY " + column + " HAVING COUNT(*) > 1 LIMIT " + MAX_REPORTED_DUPLICATES)) {
+			while (rows.next()) {
+				duplicates.add(rows.getString(1));
+			}
+		}
+		return duplicates;
+	}
+}
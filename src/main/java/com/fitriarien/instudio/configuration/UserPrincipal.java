@@ -0,0 +1,74 @@
+package com.fitriarien.instudio.configuration;
+
+import com.fitriarien.instudio.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Getter
+@AllArgsConstructor
+public class UserPrincipal implements UserDetails {
+
+    private static final long serialVersionUID = 3614928391542617410L;
+
+    public static final String ROLE_USER = "ROLE_USER";
+
+    // one immutable authority list per role, shared by every principal with that role
+    private static final Map<String, List<GrantedAuthority>> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private final String id;
+
+    private final String username;
+
+    private final String password;
+
+    private final String role;
+
+    private final Long status;
+
+    private final long tokenVersion;
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), user.getRole(), user.getStatus(),
+                user.getTokenVersion() == null ? 0 : user.getTokenVersion());
+    }
+
+    // active users get ROLE_USER plus ROLE_<role>, inactive users get nothing
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        if (status == null || status == 0 || role == null) {
+            return Collections.emptyList();
+        }
+        return AUTHORITIES.computeIfAbsent(role.toUpperCase(Locale.ROOT),
+                key -> Collections.unmodifiableList(AuthorityUtils.createAuthorityList(ROLE_USER, "ROLE_" + key)));
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
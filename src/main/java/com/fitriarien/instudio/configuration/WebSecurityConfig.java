@@ -1,6 +1,8 @@
 package com.fitriarien.instudio.configuration;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,6 +14,7 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -19,6 +22,8 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -34,6 +39,9 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 	@Autowired
 	private JwtRequestFilter jwtRequestFilter;
 
+	@Value("${security.password.bcrypt-strength:10}")
+	private int bcryptStrength;
+
 	@Autowired
 	public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
 		// configure AuthenticationManager so that it knows from where to load user for matching credentials
@@ -43,7 +51,14 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
 	@Bean
 	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+		BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+		Map<String, PasswordEncoder> encoders = new HashMap<>();
+		encoders.put("bcrypt", bcrypt);
+
+		// new hashes are stored as {bcrypt}..., hashes stored before the prefix existed are still bcrypt
+		DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", encoders);
+		encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+		return encoder;
 	}
 
 	@Bean
@@ -59,7 +74,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 				.cors().and()
 				.csrf().disable()  // don't authenticate this particular request
 				.authorizeRequests()
-				.antMatchers("/api/auth/login", "/api/users")
+				.antMatchers(JwtRequestFilter.PUBLIC_PATHS)
 				.permitAll()
 				.anyRequest()
 				.authenticated()
@@ -76,6 +91,14 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 		httpSecurity.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
 	}
 
+	// the filter only runs inside the security chain, not a second time as a plain servlet filter
+	@Bean
+	public FilterRegistrationBean<JwtRequestFilter> jwtRequestFilterRegistration(JwtRequestFilter filter) {
+		FilterRegistrationBean<JwtRequestFilter> registration = new FilterRegistrationBean<>(filter);
+		registration.setEnabled(false);
+		return registration;
+	}
+
 	@Bean
 	public CorsConfigurationSource corsConfigurationSource() throws Exception {
 		CorsConfiguration configuration = new CorsConfiguration();
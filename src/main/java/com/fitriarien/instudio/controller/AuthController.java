@@ -1,15 +1,21 @@
 package com.fitriarien.instudio.controller;
 
-import com.fitriarien.instudio.configuration.JwtBlacklistFilter;
+import com.fitriarien.instudio.configuration.JwtTokenUtil;
+import com.fitriarien.instudio.configuration.UserPrincipal;
 import com.fitriarien.instudio.model.request.RegisterUserRequest;
 import com.fitriarien.instudio.model.request.LoginUserRequest;
+import com.fitriarien.instudio.model.request.RefreshTokenRequest;
 import com.fitriarien.instudio.model.response.GenerateResponse;
 import com.fitriarien.instudio.model.response.TokenResponse;
 import com.fitriarien.instudio.model.response.UserResponse;
 import com.fitriarien.instudio.service.AuthService;
+import com.fitriarien.instudio.service.LoginRateLimiter;
+import com.fitriarien.instudio.service.RefreshTokenService;
 import com.fitriarien.instudio.service.TokenBlacklistService;
+import com.fitriarien.instudio.service.TokenVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -25,7 +31,13 @@ public class AuthController {
 	@Autowired
 	private TokenBlacklistService tokenBlacklistService;
 	@Autowired
-	private JwtBlacklistFilter jwtBlacklistFilter;
+	private JwtTokenUtil jwtTokenUtil;
+	@Autowired
+	private TokenVersionService tokenVersionService;
+	@Autowired
+	private LoginRateLimiter loginRateLimiter;
+	@Autowired
+	private RefreshTokenService refreshTokenService;
 
 	@PostMapping(
 			path = "/api/users",
@@ -42,18 +54,43 @@ public class AuthController {
 			consumes = MediaType.APPLICATION_JSON_VALUE,
 			produces = MediaType.APPLICATION_JSON_VALUE
 	)
-	public GenerateResponse<TokenResponse> login(@RequestBody LoginUserRequest request) throws Exception {
+	public GenerateResponse<TokenResponse> login(@RequestBody LoginUserRequest request, HttpServletRequest servletRequest) {
+		// the real client address; the forwarded-headers valve resolves it from X-Forwarded-For behind the balancer
+		loginRateLimiter.acquire(request.getUsername(), servletRequest.getRemoteAddr());
 		TokenResponse tokenResponse = authService.login(request);
 		return GenerateResponse.<TokenResponse>builder().data(tokenResponse).build();
 	}
 
+	@PostMapping(
+			path = "/api/auth/refresh",
+			consumes = MediaType.APPLICATION_JSON_VALUE,
+			produces = MediaType.APPLICATION_JSON_VALUE
+	)
+	public GenerateResponse<TokenResponse> refresh(@RequestBody RefreshTokenRequest request) {
+		TokenResponse tokenResponse = authService.refresh(request);
+		return GenerateResponse.<TokenResponse>builder().data(tokenResponse).build();
+	}
+
 	@PostMapping(
 			path = "/api/auth/logout",
 			produces = MediaType.APPLICATION_JSON_VALUE
 	)
-	public GenerateResponse<String> logout(@RequestBody HttpServletRequest request) {
-		String token = jwtBlacklistFilter.extractToken(request);
+	public GenerateResponse<String> logout(HttpServletRequest request,
+										   @RequestBody(required = false) RefreshTokenRequest refreshRequest) {
+		String token = jwtTokenUtil.extractToken(request);
 		tokenBlacklistService.addToBlacklist(token);
+		if (refreshRequest != null && refreshRequest.getRefreshToken() != null) {
+			refreshTokenService.revoke(refreshRequest.getRefreshToken());
+		}
+		return GenerateResponse.<String>builder().data("success").build();
+	}
+
+	@PostMapping(
+			path = "/api/auth/logout/all",
+			produces = MediaType.APPLICATION_JSON_VALUE
+	)
+	public GenerateResponse<String> logoutAll(@AuthenticationPrincipal UserPrincipal principal) {
+		tokenVersionService.revokeAll(principal.getId());
 		return GenerateResponse.<String>builder().data("success").build();
 	}
 }
\ No newline at end of file
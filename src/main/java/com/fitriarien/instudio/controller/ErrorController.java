@@ -3,6 +3,7 @@ package com.fitriarien.instudio.controller;
 import com.fitriarien.instudio.model.response.GenerateResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
@@ -18,9 +19,16 @@ public class ErrorController {
                 .body(GenerateResponse.<String>builder().errors(exception.getMessage()).build());
     }
 
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<GenerateResponse<String>> accessDeniedException(AccessDeniedException exception) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(GenerateResponse.<String>builder().errors("User does not have permission to perform this action.").build());
+    }
+
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<GenerateResponse<String>> apiException(ResponseStatusException exception) {
         return ResponseEntity.status(exception.getRawStatusCode())
+                .headers(exception.getResponseHeaders())
                 .body(GenerateResponse.<String>builder().errors(exception.getReason()).build());
     }
 }
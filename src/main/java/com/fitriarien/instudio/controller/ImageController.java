@@ -3,10 +3,9 @@ package com.fitriarien.instudio.controller;
 import com.fitriarien.instudio.model.request.UploadImageRequest;
 import com.fitriarien.instudio.model.response.GenerateResponse;
 import com.fitriarien.instudio.model.response.ImageResponse;
-import com.fitriarien.instudio.model.response.PagingResponse;
 import com.fitriarien.instudio.service.ImageService;
+import com.fitriarien.instudio.service.PagedListing;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
@@ -63,15 +62,10 @@ public class ImageController {
             produces = MediaType.APPLICATION_JSON_VALUE
     )
     public GenerateResponse<List<ImageResponse>> getByPage(@RequestParam(value = "page", required = false, defaultValue = "0") int page,
-                                                           @RequestParam(value = "size", required = false, defaultValue = "10") int size) {
-        Page<ImageResponse> imageResponses = imageService.getByPage(page, size);
-        return GenerateResponse.<List<ImageResponse>>builder()
-                .data(imageResponses.getContent())
-                .paging(PagingResponse.builder()
-                        .size(imageResponses.getSize())
-                        .totalPage(imageResponses.getTotalPages())
-                        .currentPage(imageResponses.getNumber())
-                        .build())
-                .build();
+                                                           @RequestParam(value = "size", required = false, defaultValue = "10") int size,
+                                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                                           @RequestParam(value = "withTotal", required = false, defaultValue = "true") boolean withTotal) {
+        return PagedListing.list(page, size, cursor, withTotal, ImageResponse::getImageId,
+                imageService::getAfter, imageService::getSliceByPage, imageService::getByPage);
     }
 }
@@ -0,0 +1,36 @@
+package com.fitriarien.instudio.controller;
+
+import com.fitriarien.instudio.model.response.GenerateResponse;
+import com.fitriarien.instudio.service.MetricsSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@CrossOrigin("*")
+public class MetricsController {
+
+    @Autowired
+    private List<MetricsSource> metricsSources;
+
+    @GetMapping(
+            path = "/api/metrics",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    // pool sizes, cache contents and revocation state are operational detail, not for customers
+    @PreAuthorize("hasRole('ADMIN')")
+    public GenerateResponse<Map<String, Map<String, Object>>> getMetrics() {
+        Map<String, Map<String, Object>> metrics = new TreeMap<>();
+        for (MetricsSource source : metricsSources) {
+            metrics.put(source.getMetricsName(), source.getMetrics());
+        }
+        return GenerateResponse.<Map<String, Map<String, Object>>>builder().data(metrics).build();
+    }
+}
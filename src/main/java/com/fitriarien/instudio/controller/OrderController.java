@@ -3,10 +3,9 @@ package com.fitriarien.instudio.controller;
 import com.fitriarien.instudio.model.request.CreateOrderRequest;
 import com.fitriarien.instudio.model.response.GenerateResponse;
 import com.fitriarien.instudio.model.response.OrderResponse;
-import com.fitriarien.instudio.model.response.PagingResponse;
 import com.fitriarien.instudio.service.OrderService;
+import com.fitriarien.instudio.service.PagedListing;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
@@ -64,15 +63,12 @@ public class OrderController {
     )
     public GenerateResponse<List<OrderResponse>> getOrdersByPage(@PathVariable("userId") String userId,
                                                                  @RequestParam(value = "page", required = false, defaultValue = "0") int page,
-                                                                 @RequestParam(value = "size", required = false, defaultValue = "10") int size) {
-        Page<OrderResponse> orderResponses = orderService.getOrdersByPage(userId, page, size);
-        return GenerateResponse.<List<OrderResponse>>builder()
-                .data(orderResponses.getContent())
-                .paging(PagingResponse.builder()
-                        .currentPage(orderResponses.getNumber())
-                        .totalPage(orderResponses.getTotalPages())
-                        .size(orderResponses.getSize())
-                        .build())
-                .build();
+                                                                 @RequestParam(value = "size", required = false, defaultValue = "10") int size,
+                                                                 @RequestParam(value = "cursor", required = false) String cursor,
+                                                                 @RequestParam(value = "withTotal", required = false, defaultValue = "true") boolean withTotal) {
+        return PagedListing.list(page, size, cursor, withTotal, OrderResponse::getOrderId,
+                (orderId, limit) -> orderService.getOrdersAfter(userId, orderId, limit),
+                (pageNumber, limit) -> orderService.getOrdersSliceByPage(userId, pageNumber, limit),
+                (pageNumber, limit) -> orderService.getOrdersByPage(userId, pageNumber, limit));
     }
 }
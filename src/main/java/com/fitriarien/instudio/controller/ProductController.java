@@ -3,16 +3,16 @@ package com.fitriarien.instudio.controller;
 import com.fitriarien.instudio.model.request.CreateProductRequest;
 import com.fitriarien.instudio.model.request.UpdateProductRequest;
 import com.fitriarien.instudio.model.response.GenerateResponse;
-import com.fitriarien.instudio.model.response.PagingResponse;
 import com.fitriarien.instudio.model.response.ProductResponse;
+import com.fitriarien.instudio.service.PagedListing;
 import com.fitriarien.instudio.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @CrossOrigin("*")
@@ -77,15 +77,19 @@ public class ProductController {
             produces = MediaType.APPLICATION_JSON_VALUE
     )
     public GenerateResponse<List<ProductResponse>> getByPage(@RequestParam(value = "page", required = false, defaultValue = "0") int page,
-                                                             @RequestParam(value = "size", required = false, defaultValue = "10") int size) {
-        Page<ProductResponse> productResponsePage = productService.getByPage(page, size);
-        return GenerateResponse.<List<ProductResponse>>builder()
-                .data(productResponsePage.getContent())
-                .paging(PagingResponse.builder()
-                        .currentPage(productResponsePage.getNumber())
-                        .totalPage(productResponsePage.getTotalPages())
-                        .size(productResponsePage.getSize())
-                        .build())
-                .build();
+                                                             @RequestParam(value = "size", required = false, defaultValue = "10") int size,
+                                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                                             @RequestParam(value = "withTotal", required = false, defaultValue = "true") boolean withTotal) {
+        return PagedListing.list(page, size, cursor, withTotal, ProductResponse::getProductId,
+                productService::getAfter, productService::getSliceByPage, productService::getByPage);
+    }
+
+    @PostMapping(
+            path = "/api/products/cache/reload",
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public GenerateResponse<Map<String, Object>> reloadCatalog() {
+        Map<String, Object> catalog = productService.reloadCatalog();
+        return GenerateResponse.<Map<String, Object>>builder().data(catalog).build();
     }
 }
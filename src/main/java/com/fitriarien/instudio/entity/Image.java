@@ -1,5 +1,6 @@
 package com.fitriarien.instudio.entity;
 
+import com.fitriarien.instudio.service.CountCacheListener;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -12,7 +13,10 @@ import javax.persistence.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "images")
+@EntityListeners(CountCacheListener.class)
+@Table(name = "images", indexes = {
+        @Index(name = "idx_images_status", columnList = "image_status, image_id")
+})
 public class Image {
 
     @Id
@@ -1,5 +1,6 @@
 package com.fitriarien.instudio.entity;
 
+import com.fitriarien.instudio.service.CountCacheListener;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,6 +14,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(CountCacheListener.class)
 @Table(name = "orders")
 public class Order {
 
@@ -38,7 +40,7 @@ public class Order {
     @Column(name = "order_status")
     private Long orderStatus;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private User user;
 
@@ -35,7 +35,7 @@ public class Payment {
     @Column(name = "account_number")
     private String accountNumber;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", referencedColumnName = "order_id")
     @JsonIgnore
     private Order order;
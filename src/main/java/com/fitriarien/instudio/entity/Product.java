@@ -1,6 +1,7 @@
 package com.fitriarien.instudio.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fitriarien.instudio.service.ProductCatalogListener;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,7 +15,11 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "products")
+@EntityListeners(ProductCatalogListener.class)
+@Table(name = "products", indexes = {
+        @Index(name = "uk_products_product_name", columnList = "product_name", unique = true),
+        @Index(name = "idx_products_status", columnList = "product_status, product_id")
+})
 public class Product {
 
     @Id
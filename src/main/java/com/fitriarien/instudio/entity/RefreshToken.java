@@ -0,0 +1,43 @@
+package com.fitriarien.instudio.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_digest", unique = true, nullable = false, length = 64)
+    private String tokenDigest;
+
+    // every token rotated from the same login shares the family id
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    // user's token version at issue time, so a revoke-all also ends refresh
+    @Column(name = "token_version")
+    private Long tokenVersion;
+
+    @Column(name = "expires_at")
+    private Long expiresAt;
+
+    private boolean used;
+}
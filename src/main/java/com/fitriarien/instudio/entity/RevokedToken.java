@@ -0,0 +1,37 @@
+package com.fitriarien.instudio.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at, id")
+})
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the decoded signature, see JwtTokenUtil.getSignatureBytes
+    @Column(name = "token_digest", unique = true, nullable = false, length = 64)
+    private String tokenDigest;
+
+    private Long fingerprint;
+
+    @Column(name = "expires_at")
+    private Long expiresAt;
+
+    // wall-clock time of the node that recorded the revocation, taken before the insert commits
+    @Column(name = "revoked_at")
+    private Long revokedAt;
+}
@@ -1,13 +1,17 @@
 package com.fitriarien.instudio.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fitriarien.instudio.service.UserCacheListener;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import java.util.List;
@@ -17,7 +21,10 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "users")
+@EntityListeners(UserCacheListener.class)
+@Table(name = "users", indexes = {
+        @Index(name = "uk_users_username", columnList = "username", unique = true)
+})
 public class User {
 
     @Id
@@ -39,6 +46,10 @@ public class User {
 
     private Long status;
 
+    // bumped to invalidate every token issued before the change
+    @Column(name = "token_version")
+    private Long tokenVersion;
+
     @OneToMany(mappedBy = "user")
     @JsonIgnore
     private List<Product> products;
@@ -0,0 +1,22 @@
+package com.fitriarien.instudio.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import java.io.Serializable;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class RefreshTokenRequest implements Serializable {
+
+	private static final long serialVersionUID = 2837418250967724011L;
+
+	@NotBlank
+	private String refreshToken;
+
+}
@@ -1,6 +1,5 @@
 package com.fitriarien.instudio.model.response;
 
-import com.fitriarien.instudio.entity.Product;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,5 +15,5 @@ public class OrderDetResponse {
     private String productTheme;
     private Long timeEstimation;
     private Double subtotal;
-    private Product product;
+    private String productId;
 }
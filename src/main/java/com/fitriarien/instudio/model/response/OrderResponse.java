@@ -1,8 +1,5 @@
 package com.fitriarien.instudio.model.response;
 
-import com.fitriarien.instudio.entity.OrderDetail;
-import com.fitriarien.instudio.entity.Payment;
-import com.fitriarien.instudio.entity.User;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,6 +19,6 @@ public class OrderResponse {
     private String visitAddress;
     private Double orderAmount;
     private Long orderStatus;
-    private List<OrderDetail> orderDetailList;
-    private List<Payment> paymentList;
+    private List<OrderDetResponse> orderDetailList;
+    private List<PaymentResponse> paymentList;
 }
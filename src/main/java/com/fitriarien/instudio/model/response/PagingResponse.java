@@ -11,9 +11,15 @@ import lombok.NoArgsConstructor;
 @Builder
 public class PagingResponse {
 
-    private int currentPage;
+    // null for cursor requests, which don't know their position
+    private Integer currentPage;
 
-    private int totalPage;
+    private Integer totalPage;
 
     private int size;
+
+    private boolean hasNext;
+
+    // cursor for the following page, null on the last one
+    private String next;
 }
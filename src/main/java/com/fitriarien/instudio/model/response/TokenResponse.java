@@ -15,6 +15,8 @@ public class TokenResponse {
 
     private String token;
 
+    private String refreshToken;
+
     private String username;
 
     private String name;
@@ -1,10 +1,75 @@
 package com.fitriarien.instudio.repository;
 
 import com.fitriarien.instudio.entity.Image;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ImageRepository extends JpaRepository<Image, String>, JpaSpecificationExecutor<Image> {
+
+    Long STATUS_DELETED = 0L;
+
+    String SELECT_ROW = "SELECT i.imageId AS imageId, i.imageAlt AS imageAlt, i.imagePath AS imagePath, "
+            + "i.imageStatus AS imageStatus, p.productId AS productId, u.id AS userId "
+            + "FROM Image i LEFT JOIN i.product p LEFT JOIN i.user u ";
+
+    @Query(SELECT_ROW + "WHERE i.imageStatus <> :imageStatus")
+    List<ImageRow> findRowsByImageStatusNot(@Param("imageStatus") Long imageStatus);
+
+    // a Slice, so Spring Data doesn't issue a COUNT query alongside it
+    @Query(SELECT_ROW + "WHERE i.imageStatus <> :imageStatus")
+    Slice<ImageRow> findRowsByImageStatusNot(@Param("imageStatus") Long imageStatus, Pageable pageable);
+
+    @Query(SELECT_ROW + "WHERE i.imageStatus <> :imageStatus AND i.imageId > :imageId")
+    Slice<ImageRow> findRowsByImageStatusNotAndImageIdGreaterThan(@Param("imageStatus") Long imageStatus,
+                                                                  @Param("imageId") String imageId,
+                                                                  Pageable pageable);
+
+    long countByImageStatusNot(Long imageStatus);
+
+    Optional<Image> findByImageIdAndImageStatusNot(String imageId, Long imageStatus);
+
+    // soft-deleted images are filtered in SQL, never loaded; listings read only the columns they return
+    default List<ImageRow> findAllActive() {
+        return findRowsByImageStatusNot(STATUS_DELETED);
+    }
+
+    default Slice<ImageRow> findAllActive(Pageable pageable) {
+        return findRowsByImageStatusNot(STATUS_DELETED, pageable);
+    }
+
+    default long countActive() {
+        return countByImageStatusNot(STATUS_DELETED);
+    }
+
+    // keyset page: the active images after the given id, in the pageable's order
+    default Slice<ImageRow> findActiveAfter(String imageId, Pageable pageable) {
+        return findRowsByImageStatusNotAndImageIdGreaterThan(STATUS_DELETED, imageId, pageable);
+    }
+
+    default Optional<Image> findActiveById(String imageId) {
+        return findByImageIdAndImageStatusNot(imageId, STATUS_DELETED);
+    }
+
+    interface ImageRow {
+        String getImageId();
+
+        String getImageAlt();
+
+        String getImagePath();
+
+        Long getImageStatus();
+
+        String getProductId();
+
+        String getUserId();
+    }
 }
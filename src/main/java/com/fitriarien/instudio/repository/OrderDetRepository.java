@@ -2,8 +2,35 @@ package com.fitriarien.instudio.repository;
 
 import com.fitriarien.instudio.entity.OrderDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrderDetRepository extends JpaRepository<OrderDetail, String> {
+
+    @Query("SELECT o.orderId AS orderId, d.orderDetId AS orderDetId, d.timeEstimation AS timeEstimation, "
+            + "d.subtotal AS subtotal, d.productSize AS productSize, d.productTheme AS productTheme, "
+            + "p.productId AS productId "
+            + "FROM OrderDetail d JOIN d.order o LEFT JOIN d.product p WHERE o.orderId IN :orderIds")
+    List<OrderDetRow> findRowsByOrderIdIn(@Param("orderIds") Collection<String> orderIds);
+
+    interface OrderDetRow {
+        String getOrderId();
+
+        String getOrderDetId();
+
+        Long getTimeEstimation();
+
+        Double getSubtotal();
+
+        Double getProductSize();
+
+        String getProductTheme();
+
+        String getProductId();
+    }
 }
@@ -2,6 +2,8 @@ package com.fitriarien.instudio.repository;
 
 import com.fitriarien.instudio.entity.Order;
 import com.fitriarien.instudio.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -13,5 +15,25 @@ import java.util.List;
 @Repository
 public interface OrderRepository extends JpaRepository<Order, String>, JpaSpecificationExecutor<Order> {
     @Query("SELECT COUNT(*) FROM Order") Long getMaxOrder();
-    List<Order> findByUserId(String userId);
+    // listings read only the order's own columns; details and payments are fetched as rows for the whole batch
+    List<OrderRow> findRowsBy();
+    List<OrderRow> findRowsByUserId(String userId);
+    Slice<OrderRow> findRowsBy(Pageable pageable);
+    Slice<OrderRow> findRowsByOrderIdGreaterThan(String orderId, Pageable pageable);
+
+    interface OrderRow {
+        String getOrderId();
+
+        String getOrderCode();
+
+        String getOrderDate();
+
+        String getVisitSchedule();
+
+        String getVisitAddress();
+
+        Double getOrderAmount();
+
+        Long getOrderStatus();
+    }
 }
@@ -2,8 +2,35 @@ package com.fitriarien.instudio.repository;
 
 import com.fitriarien.instudio.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, String> {
+
+    @Query("SELECT o.orderId AS orderId, p.paymentId AS paymentId, p.paymentDate AS paymentDate, "
+            + "p.paymentAmount AS paymentAmount, p.paymentMethod AS paymentMethod, p.paymentDetail AS paymentDetail, "
+            + "p.accountNumber AS accountNumber "
+            + "FROM Payment p JOIN p.order o WHERE o.orderId IN :orderIds")
+    List<PaymentRow> findRowsByOrderIdIn(@Param("orderIds") Collection<String> orderIds);
+
+    interface PaymentRow {
+        String getOrderId();
+
+        String getPaymentId();
+
+        String getPaymentDate();
+
+        Double getPaymentAmount();
+
+        String getPaymentMethod();
+
+        String getPaymentDetail();
+
+        String getAccountNumber();
+    }
 }
@@ -3,10 +3,48 @@ package com.fitriarien.instudio.repository;
 import com.fitriarien.instudio.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, String>, JpaSpecificationExecutor<Product> {
 
+    Long STATUS_DELETED = 0L;
+
     Product findByProductName(String productName);
+
+    @Query("SELECT p.productId AS productId, p.productName AS productName, p.productModel AS productModel, "
+            + "p.costEstimation AS costEstimation, p.productStatus AS productStatus, u.id AS userId "
+            + "FROM Product p LEFT JOIN p.user u WHERE p.productStatus <> :productStatus")
+    List<ProductRow> findRowsByProductStatusNot(@Param("productStatus") Long productStatus);
+
+    List<ProductName> findAllProjectedBy();
+
+    // soft-deleted products are filtered in SQL, never loaded; only the columns the catalog serves are read
+    default List<ProductRow> findAllActive() {
+        return findRowsByProductStatusNot(STATUS_DELETED);
+    }
+
+    interface ProductName {
+        String getProductId();
+
+        String getProductName();
+    }
+
+    interface ProductRow {
+        String getProductId();
+
+        String getProductName();
+
+        String getProductModel();
+
+        Double getCostEstimation();
+
+        Long getProductStatus();
+
+        String getUserId();
+    }
 }
@@ -0,0 +1,33 @@
+package com.fitriarien.instudio.repository;
+
+import com.fitriarien.instudio.entity.RevokedToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    // bounds how long a revocation can stay uncommitted after its revokedAt; keep it well below
+    // jwt.revocation.sync-overlap-ms
+    int INSERT_TIMEOUT_SECONDS = 5;
+
+    @Override
+    @Transactional(timeout = INSERT_TIMEOUT_SECONDS)
+    <S extends RevokedToken> S save(S revokedToken);
+
+    @Query("SELECT r FROM RevokedToken r "
+            + "WHERE (r.revokedAt > :revokedAt OR (r.revokedAt = :revokedAt AND r.id > :id)) AND r.expiresAt > :now "
+            + "ORDER BY r.revokedAt, r.id")
+    List<RevokedToken> findRevokedSince(@Param("revokedAt") Long revokedAt, @Param("id") Long id, @Param("now") Long now,
+                                        Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Long now);
+}
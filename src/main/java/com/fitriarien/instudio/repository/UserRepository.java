@@ -2,9 +2,25 @@ package com.fitriarien.instudio.repository;
 
 import com.fitriarien.instudio.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
     User findByUsername(String username);
-}
\ No newline at end of file
+
+    boolean existsByUsername(String username);
+
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = COALESCE(u.tokenVersion, 0) + 1 WHERE u.id = :id")
+    int incrementTokenVersion(@Param("id") String id);
+
+    // compare-and-set on the old hash, so a password change that lands while the upgrade is hashing wins
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+    int updatePassword(@Param("id") String id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+}
@@ -0,0 +1,45 @@
+package com.fitriarien.instudio.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes the JDBC connection pool's occupancy, to see how long requests hold connections and whether any wait for
+ * one.
+ */
+@Component
+public class ConnectionPoolMetrics implements MetricsSource {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Override
+    public String getMetricsName() {
+        return "connectionPool";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        if (!(dataSource instanceof HikariDataSource)) {
+            return metrics;
+        }
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        metrics.put("maximumPoolSize", hikari.getMaximumPoolSize());
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        // null until the first connection has been requested
+        if (pool != null) {
+            metrics.put("active", pool.getActiveConnections());
+            metrics.put("idle", pool.getIdleConnections());
+            metrics.put("total", pool.getTotalConnections());
+            metrics.put("threadsAwaitingConnection", pool.getThreadsAwaitingConnection());
+        }
+        return metrics;
+    }
+}
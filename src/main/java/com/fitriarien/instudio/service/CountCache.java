@@ -0,0 +1,78 @@
+package com.fitriarien.instudio.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of row counts used for page totals, keyed by entity and filter. Counts are dropped whenever an
+ * entity of that type is written through JPA, and otherwise expire after a few seconds.
+ */
+@Service
+public class CountCache implements MetricsSource {
+
+    @Value("${cache.counts.ttl-ms:5000}")
+    private long ttlMillis;
+
+    // entity type -> filter -> count
+    private final Map<Class<?>, Map<String, CachedCount>> counts = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public long count(Class<?> entity, String filter, Supplier<Long> counter) {
+        Map<String, CachedCount> byFilter = counts.computeIfAbsent(entity, key -> new ConcurrentHashMap<>());
+        CachedCount cached = byFilter.get(filter);
+        if (cached != null && cached.getLoadedAt() + ttlMillis > System.currentTimeMillis()) {
+            hits.increment();
+            return cached.getCount();
+        }
+        misses.increment();
+        long count = counter.get();
+        byFilter.put(filter, new CachedCount(count, System.currentTimeMillis()));
+        return count;
+    }
+
+    // drop the counts now and again after commit, so a count taken mid-transaction isn't kept
+    public void invalidate(Class<?> entity) {
+        counts.remove(entity);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counts.remove(entity);
+                }
+            });
+        }
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "countCache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", counts.values().stream().mapToInt(Map::size).sum());
+        metrics.put("hits", hits.sum());
+        metrics.put("misses", misses.sum());
+        return metrics;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedCount {
+        private final long count;
+        private final long loadedAt;
+    }
+}
@@ -0,0 +1,28 @@
+package com.fitriarien.instudio.service;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Invalidates {@link CountCache} for the entity's type on every insert, update and delete that goes through JPA.
+ */
+@Component
+public class CountCacheListener {
+
+    @Autowired
+    @Lazy
+    private CountCache countCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void invalidate(Object entity) {
+        countCache.invalidate(Hibernate.getClass(entity));
+    }
+}
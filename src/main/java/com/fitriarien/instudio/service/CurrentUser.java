@@ -0,0 +1,63 @@
+package com.fitriarien.instudio.service;
+
+import com.fitriarien.instudio.configuration.UserPrincipal;
+import com.fitriarien.instudio.entity.User;
+import com.fitriarien.instudio.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * The authenticated user of the current request, resolved once from the principal the JWT filter put in the
+ * security context, so services don't have to load the acting user again.
+ */
+@Component
+@RequestScope
+public class CurrentUser {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    private UserPrincipal principal;
+
+    public UserPrincipal getPrincipal() {
+        if (principal == null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal)) {
+                throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+            }
+            principal = (UserPrincipal) authentication.getPrincipal();
+        }
+        return principal;
+    }
+
+    /**
+     * The principal, provided the request acts on behalf of the given path user id. Before this check, services
+     * loaded the path user and applied its role and status, so any authenticated caller could act as another user by
+     * putting that user's id in the path; the ids must now match. A path user that doesn't exist is still 404, any
+     * other mismatch is 403.
+     */
+    public UserPrincipal require(String userId) {
+        UserPrincipal current = getPrincipal();
+        if (!current.getId().equals(userId)) {
+            // only look the user up on the unusual path, to tell a missing user from someone else's
+            if (!userCache.findById(userId).isPresent()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+            }
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to act on behalf of another user.");
+        }
+        return current;
+    }
+
+    // uninitialized reference to the acting user, enough to set an association without a select
+    public User getReference() {
+        return userRepository.getReferenceById(getPrincipal().getId());
+    }
+}
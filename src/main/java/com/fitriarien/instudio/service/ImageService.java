@@ -3,6 +3,7 @@ package com.fitriarien.instudio.service;
 import com.fitriarien.instudio.model.request.UploadImageRequest;
 import com.fitriarien.instudio.model.response.ImageResponse;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -16,4 +17,8 @@ public interface ImageService {
     List<ImageResponse> getList();
 
     Page<ImageResponse> getByPage(int page, int size);
+
+    Slice<ImageResponse> getSliceByPage(int page, int size);
+
+    Slice<ImageResponse> getAfter(String imageId, int size);
 }
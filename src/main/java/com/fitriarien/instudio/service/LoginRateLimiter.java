@@ -0,0 +1,164 @@
+package com.fitriarien.instudio.service;
+
+import com.fitriarien.instudio.exception.RetryLaterException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets per username and per client IP, checked before any database or hashing work on login.
+ */
+@Service
+public class LoginRateLimiter implements MetricsSource {
+
+    @Value("${security.login.throttle.username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${security.login.throttle.username.refill-per-minute:5}")
+    private int usernameRefillPerMinute;
+
+    @Value("${security.login.throttle.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${security.login.throttle.ip.refill-per-minute:20}")
+    private int ipRefillPerMinute;
+
+    @Value("${security.login.throttle.width:4096}")
+    private int width;
+
+    private TokenBucketSketch usernameBuckets;
+    private TokenBucketSketch ipBuckets;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttledByUsername = new LongAdder();
+    private final LongAdder throttledByIp = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        usernameBuckets = new TokenBucketSketch(width, usernameCapacity, usernameRefillPerMinute);
+        ipBuckets = new TokenBucketSketch(width, ipCapacity, ipRefillPerMinute);
+    }
+
+    public void acquire(String username, String clientIp) {
+        if (!ipBuckets.tryAcquire(clientIp == null ? "" : clientIp)) {
+            throttledByIp.increment();
+            throw tooManyAttempts(ipBuckets);
+        }
+        if (!usernameBuckets.tryAcquire(username == null ? "" : username.toLowerCase())) {
+            throttledByUsername.increment();
+            throw tooManyAttempts(usernameBuckets);
+        }
+        allowed.increment();
+    }
+
+    private RetryLaterException tooManyAttempts(TokenBucketSketch buckets) {
+        return new RetryLaterException(HttpStatus.TOO_MANY_REQUESTS,
+                "Too many login attempts. Please try again later.", buckets.getSecondsPerToken());
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "loginRateLimiter";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("allowed", allowed.sum());
+        metrics.put("throttledByUsername", throttledByUsername.sum());
+        metrics.put("throttledByIp", throttledByIp.sum());
+        metrics.put("width", width);
+        return metrics;
+    }
+
+    /**
+     * Fixed-size, lock-free sketch of token buckets. Each key maps to one slot in each of two rows; a key is allowed
+     * while its fullest slot still holds a token, so a heavy hitter only drains the slots it shares with others.
+     * Memory stays at two rows of {@code width} longs no matter how many distinct keys are seen.
+     */
+    static class TokenBucketSketch {
+
+        private static final long SCALE = 1000;
+        private static final int TOKEN_BITS = 22;
+        private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+
+        private final AtomicLongArray[] rows = new AtomicLongArray[2];
+        private final int[] seeds = new int[2];
+        private final int width;
+        private final long capacity;
+        private final double refillPerMilli;
+        private final long epoch = System.currentTimeMillis();
+
+        TokenBucketSketch(int width, int capacity, int refillPerMinute) {
+            this.width = width;
+            this.capacity = Math.min(TOKEN_MASK, capacity * SCALE);
+            this.refillPerMilli = refillPerMinute * SCALE / 60_000d;
+            SecureRandom random = new SecureRandom();
+            for (int i = 0; i < rows.length; i++) {
+                seeds[i] = random.nextInt();
+                rows[i] = new AtomicLongArray(width);
+                long full = pack(0, this.capacity);
+                for (int j = 0; j < width; j++) {
+                    rows[i].set(j, full);
+                }
+            }
+        }
+
+        boolean tryAcquire(String key) {
+            long now = System.currentTimeMillis() - epoch;
+            int[] slots = new int[rows.length];
+            long available = 0;
+            for (int i = 0; i < rows.length; i++) {
+                slots[i] = Math.floorMod(hash(key, seeds[i]), width);
+                available = Math.max(available, refilled(rows[i].get(slots[i]), now));
+            }
+            if (available < SCALE) {
+                return false;
+            }
+            for (int i = 0; i < rows.length; i++) {
+                consume(rows[i], slots[i], now);
+            }
+            return true;
+        }
+
+        private void consume(AtomicLongArray row, int slot, long now) {
+            long current;
+            long next;
+            do {
+                current = row.get(slot);
+                next = pack(now, Math.max(0, refilled(current, now) - SCALE));
+            } while (!row.compareAndSet(slot, current, next));
+        }
+
+        private long refilled(long state, long now) {
+            long elapsed = Math.max(0, now - (state >>> TOKEN_BITS));
+            return Math.min(capacity, (state & TOKEN_MASK) + (long) (elapsed * refillPerMilli));
+        }
+
+        private static long pack(long time, long tokens) {
+            return (time << TOKEN_BITS) | tokens;
+        }
+
+        private static int hash(String key, int seed) {
+            int h = seed;
+            for (int i = 0; i < key.length(); i++) {
+                h = (h ^ key.charAt(i)) * 0x01000193;
+            }
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            return h;
+        }
+
+        long getSecondsPerToken() {
+            return Math.max(1, (long) Math.ceil(SCALE / refillPerMilli / 1000));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.fitriarien.instudio.service;
+
+import java.util.Map;
+
+public interface MetricsSource {
+    String getMetricsName();
+
+    Map<String, Object> getMetrics();
+}
@@ -3,6 +3,7 @@ package com.fitriarien.instudio.service;
 import com.fitriarien.instudio.model.request.CreateOrderRequest;
 import com.fitriarien.instudio.model.response.OrderResponse;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -12,4 +13,6 @@ public interface OrderService {
     OrderResponse get(String userId, String orderId);
     List<OrderResponse> getOrders(String userId);
     Page<OrderResponse> getOrdersByPage(String userId, int page, int size);
+    Slice<OrderResponse> getOrdersSliceByPage(String userId, int page, int size);
+    Slice<OrderResponse> getOrdersAfter(String userId, String orderId, int size);
 }
@@ -0,0 +1,41 @@
+package com.fitriarien.instudio.service;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset cursor: the id of the last row a client has seen. Listings are ordered by id, so the next page is
+ * whatever comes after it, found by an index seek instead of skipping OFFSET rows.
+ */
+public final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    public static String encode(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor.");
+        }
+    }
+
+    // cursor pointing after the last row of the slice, or null on the last slice
+    public static <T> String next(Slice<T> slice, Function<T, String> id) {
+        List<T> content = slice.getContent();
+        if (!slice.hasNext() || content.isEmpty()) {
+            return null;
+        }
+        return encode(id.apply(content.get(content.size() - 1)));
+    }
+}
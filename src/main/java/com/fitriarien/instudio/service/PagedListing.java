@@ -0,0 +1,65 @@
+package com.fitriarien.instudio.service;
+
+import com.fitriarien.instudio.model.response.GenerateResponse;
+import com.fitriarien.instudio.model.response.PagingResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Serves a listing endpoint in whichever of its three modes the request asks for: after a {@link PageCursor}, by page
+ * without a total, or by page with a total. Cursors are decoded, and rejected, here only, so the services behind it
+ * get a plain id.
+ */
+public final class PagedListing {
+
+    private PagedListing() {
+    }
+
+    @FunctionalInterface
+    public interface AfterQuery<T> {
+        Slice<T> after(String afterId, int size);
+    }
+
+    @FunctionalInterface
+    public interface PageQuery<R> {
+        R get(int page, int size);
+    }
+
+    public static <T> GenerateResponse<List<T>> list(int page, int size, String cursor, boolean withTotal,
+                                                     Function<T, String> id,
+                                                     AfterQuery<T> afterQuery,
+                                                     PageQuery<Slice<T>> sliceQuery,
+                                                     PageQuery<Page<T>> pageQuery) {
+        if (cursor != null) {
+            Slice<T> slice = afterQuery.after(PageCursor.decode(cursor), size);
+            // a cursor request doesn't know its position
+            return toResponse(slice, id, PagingResponse.builder());
+        }
+
+        // without totals there is no COUNT query, only whether another page follows
+        if (!withTotal) {
+            Slice<T> slice = sliceQuery.get(page, size);
+            return toResponse(slice, id, PagingResponse.builder().currentPage(slice.getNumber()));
+        }
+
+        Page<T> result = pageQuery.get(page, size);
+        return toResponse(result, id, PagingResponse.builder()
+                .currentPage(result.getNumber())
+                .totalPage(result.getTotalPages()));
+    }
+
+    private static <T> GenerateResponse<List<T>> toResponse(Slice<T> slice, Function<T, String> id,
+                                                            PagingResponse.PagingResponseBuilder paging) {
+        return GenerateResponse.<List<T>>builder()
+                .data(slice.getContent())
+                .paging(paging
+                        .size(slice.getSize())
+                        .hasNext(slice.hasNext())
+                        .next(PageCursor.next(slice, id))
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,218 @@
+package com.fitriarien.instudio.service;
+
+import com.fitriarien.instudio.entity.Product;
+import com.fitriarien.instudio.model.response.ProductResponse;
+import com.fitriarien.instudio.repository.ProductRepository;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory snapshot of the product catalog, rebuilt lazily after every product write on this node and after a TTL,
+ * which bounds how long writes made on other nodes go unseen. A snapshot is tagged with the catalog version it was
+ * loaded at and is only installed if no write happened while it was loading. Loads are serialized, so a burst of
+ * reads after an invalidation runs one query rather than one each.
+ */
+@Service
+public class ProductCatalogCache implements MetricsSource {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // distinct page/size combinations kept per snapshot
+    @Value("${cache.products.max-pages:1000}")
+    private int maxPages;
+
+    @Value("${cache.products.catalog-ttl-ms:30000}")
+    private long ttlMillis;
+
+    private final Object loadLock = new Object();
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Catalog catalog;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile long lastLoadMillis;
+
+    public Catalog get() {
+        Catalog current = catalog;
+        if (isCurrent(current)) {
+            hits.increment();
+            return current;
+        }
+        synchronized (loadLock) {
+            // another thread may have loaded it while this one waited
+            current = catalog;
+            if (isCurrent(current)) {
+                hits.increment();
+                return current;
+            }
+            return load();
+        }
+    }
+
+    public Catalog load() {
+        synchronized (loadLock) {
+            long start = System.currentTimeMillis();
+            long loadedVersion = version.get();
+            List<ProductRepository.ProductRow> products = productRepository.findAllActive();
+            // sorted here rather than in SQL, so cursor lookups and page boundaries use the same ordering
+            Catalog loaded = new Catalog(loadedVersion, start, products.stream()
+                    .map(ProductCatalogCache::toProductResponse)
+                    .sorted(Comparator.comparing(ProductResponse::getProductId))
+                    .collect(Collectors.toList()));
+            if (version.get() == loadedVersion) {
+                catalog = loaded;
+            }
+            loads.increment();
+            lastLoadMillis = System.currentTimeMillis() - start;
+            return loaded;
+        }
+    }
+
+    private boolean isCurrent(Catalog current) {
+        return current != null
+                && current.getVersion() == version.get()
+                && current.getLoadedAt() + ttlMillis > System.currentTimeMillis();
+    }
+
+    // bump the version once the surrounding transaction has committed, so the next read reloads
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump();
+                }
+            });
+        } else {
+            bump();
+        }
+    }
+
+    private void bump() {
+        version.incrementAndGet();
+        invalidations.increment();
+    }
+
+    private static ProductResponse toProductResponse(ProductRepository.ProductRow product) {
+        return ProductResponse.builder()
+                .productId(product.getProductId())
+                .productName(product.getProductName())
+                .productModel(product.getProductModel())
+                .costEstimation(product.getCostEstimation())
+                .productStatus(product.getProductStatus())
+                .userId(product.getUserId())
+                .build();
+    }
+
+    public static ProductResponse toProductResponse(Product product) {
+        return ProductResponse.builder()
+                .productId(product.getProductId())
+                .productName(product.getProductName())
+                .productModel(product.getProductModel())
+                .costEstimation(product.getCostEstimation())
+                .productStatus(product.getProductStatus())
+                .userId(product.getUser().getId())
+                .build();
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "productCatalog";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Catalog current = catalog;
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("version", version.get());
+        metrics.put("loadedVersion", current == null ? null : current.getVersion());
+        metrics.put("products", current == null ? 0 : current.getActive().size());
+        metrics.put("cachedPages", current == null ? 0 : current.pages.size());
+        metrics.put("hits", hits.sum());
+        metrics.put("loads", loads.sum());
+        metrics.put("invalidations", invalidations.sum());
+        metrics.put("lastLoadMillis", lastLoadMillis);
+        return metrics;
+    }
+
+    @Getter
+    public class Catalog {
+
+        private final long version;
+
+        private final long loadedAt;
+
+        // active products, in id order
+        private final List<ProductResponse> active;
+
+        private final Map<String, ProductResponse> byId;
+
+        // ids of the active products, for binary search by cursor
+        private final List<String> ids;
+
+        private final Map<Pageable, Page<ProductResponse>> pages = new ConcurrentHashMap<>();
+
+        Catalog(long version, long loadedAt, List<ProductResponse> products) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.active = Collections.unmodifiableList(products);
+            this.byId = products.stream()
+                    .collect(Collectors.toMap(ProductResponse::getProductId, product -> product));
+            this.ids = products.stream()
+                    .map(ProductResponse::getProductId)
+                    .collect(Collectors.toList());
+        }
+
+        public ProductResponse get(String productId) {
+            return byId.get(productId);
+        }
+
+        public Page<ProductResponse> getPage(int page, int size) {
+            Pageable pageable = PageRequest.of(page, size);
+            Page<ProductResponse> cached = pages.get(pageable);
+            if (cached != null) {
+                return cached;
+            }
+            int from = (int) Math.min(pageable.getOffset(), active.size());
+            int to = (int) Math.min(pageable.getOffset() + size, active.size());
+            Page<ProductResponse> result = new PageImpl<>(active.subList(from, to), pageable, active.size());
+            if (pages.size() < maxPages) {
+                pages.put(pageable, result);
+            }
+            return result;
+        }
+
+        // the products after the given id
+        public Slice<ProductResponse> getAfter(String productId, int size) {
+            Pageable pageable = PageRequest.of(0, size);
+            int index = Collections.binarySearch(ids, productId);
+            int from = index >= 0 ? index + 1 : -(index + 1);
+            int to = Math.min(from + size, active.size());
+            return new SliceImpl<>(active.subList(from, to), pageable, to < active.size());
+        }
+    }
+}
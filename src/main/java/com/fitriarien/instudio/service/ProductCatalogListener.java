@@ -0,0 +1,40 @@
+package com.fitriarien.instudio.service;
+
+import com.fitriarien.instudio.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Invalidates {@link ProductCatalogCache} and updates {@link ProductNameIndex} on every product insert, update and
+ * delete that goes through JPA.
+ */
+@Component
+public class ProductCatalogListener {
+
+    // lazy, because Hibernate asks for the listener while the repositories the cache needs are still being built
+    @Autowired
+    @Lazy
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    @Lazy
+    private ProductNameIndex productNameIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Product product) {
+        productCatalogCache.invalidate();
+        productNameIndex.put(product.getProductId(), product.getProductName());
+    }
+
+    @PostRemove
+    public void removed(Product product) {
+        productCatalogCache.invalidate();
+        productNameIndex.remove(product.getProductId());
+    }
+}
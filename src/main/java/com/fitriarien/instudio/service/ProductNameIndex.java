@@ -0,0 +1,132 @@
+package com.fitriarien.instudio.service;
+
+import com.fitriarien.instudio.entity.Product;
+import com.fitriarien.instudio.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Product name to product id map, kept in step with this node's product writes after they commit and reloaded
+ * periodically to pick up writes made on other nodes. A name that isn't in the map is looked up in the database.
+ * Names are matched case-insensitively, like the unique index on products.product_name.
+ */
+@Service
+public class ProductNameIndex implements MetricsSource {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${cache.products.name-index.ttl-ms:60000}")
+    private long ttlMillis;
+
+    // replaced wholesale on reload
+    private volatile Map<String, String> idsByName = new ConcurrentHashMap<>();
+
+    // guarded by this
+    private Map<String, String> namesById = new HashMap<>();
+
+    private volatile boolean loaded;
+
+    private volatile long loadedAt;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public String findId(String productName) {
+        if (productName == null) {
+            return null;
+        }
+        if (!loaded || loadedAt + ttlMillis < System.currentTimeMillis()) {
+            load();
+        }
+        String id = idsByName.get(key(productName));
+        if (id != null) {
+            hits.increment();
+            return id;
+        }
+        // possibly created or renamed on another node since the last load
+        misses.increment();
+        Product product = productRepository.findByProductName(productName);
+        if (product == null) {
+            return null;
+        }
+        apply(product.getProductId(), product.getProductName());
+        return product.getProductId();
+    }
+
+    private synchronized void load() {
+        if (loaded && loadedAt + ttlMillis >= System.currentTimeMillis()) {
+            return;
+        }
+        Map<String, String> names = new HashMap<>();
+        Map<String, String> ids = new ConcurrentHashMap<>();
+        for (ProductRepository.ProductName product : productRepository.findAllProjectedBy()) {
+            names.put(product.getProductId(), product.getProductName());
+            ids.put(key(product.getProductName()), product.getProductId());
+        }
+        namesById = names;
+        idsByName = ids;
+        loadedAt = System.currentTimeMillis();
+        loaded = true;
+    }
+
+    public void put(String productId, String productName) {
+        afterCommit(() -> apply(productId, productName));
+    }
+
+    public void remove(String productId) {
+        afterCommit(() -> apply(productId, null));
+    }
+
+    private synchronized void apply(String productId, String productName) {
+        String previous = productName == null ? namesById.remove(productId) : namesById.put(productId, productName);
+        if (previous != null) {
+            idsByName.remove(key(previous), productId);
+        }
+        if (productName != null) {
+            idsByName.put(key(productName), productId);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String key(String productName) {
+        return productName.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "productNameIndex";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("loaded", loaded);
+        metrics.put("size", idsByName.size());
+        metrics.put("hits", hits.sum());
+        metrics.put("misses", misses.sum());
+        return metrics;
+    }
+}
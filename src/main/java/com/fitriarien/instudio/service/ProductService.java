@@ -4,8 +4,10 @@ import com.fitriarien.instudio.model.request.CreateProductRequest;
 import com.fitriarien.instudio.model.request.UpdateProductRequest;
 import com.fitriarien.instudio.model.response.ProductResponse;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.Map;
 
 public interface ProductService {
     List<ProductResponse> getList();
@@ -19,4 +21,10 @@ public interface ProductService {
     void delete(String productId, String userId);
 
     Page<ProductResponse> getByPage(int page, int size);
+
+    Slice<ProductResponse> getSliceByPage(int page, int size);
+
+    Slice<ProductResponse> getAfter(String productId, int size);
+
+    Map<String, Object> reloadCatalog();
 }
@@ -0,0 +1,84 @@
+package com.fitriarien.instudio.service;
+
+import com.fitriarien.instudio.configuration.JwtTokenUtil;
+import com.fitriarien.instudio.entity.RefreshToken;
+import com.fitriarien.instudio.entity.User;
+import com.fitriarien.instudio.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use refresh tokens. Only the SHA-256 digest is stored; presenting a token that was already rotated
+ * ends every token of its login family.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.refresh-token-validity-seconds:2592000}")
+    private long refreshTokenValidity;
+
+    // start a new family for a fresh login
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    public String issue(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenDigest(JwtTokenUtil.digest(token));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setUserId(user.getId());
+        refreshToken.setTokenVersion(TokenVersionService.versionOf(user));
+        refreshToken.setExpiresAt(System.currentTimeMillis() + refreshTokenValidity * 1000);
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    // mark the token as used and return it, so the caller can issue its successor in the same family
+    @Transactional(noRollbackFor = ResponseStatusException.class)
+    public RefreshToken consume(String token) {
+        RefreshToken stored = refreshTokenRepository.findByTokenDigest(JwtTokenUtil.digest(token));
+        if (stored == null || stored.getExpiresAt() <= System.currentTimeMillis()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token is invalid or expired.");
+        }
+        if (refreshTokenRepository.markUsed(stored.getId()) == 0) {
+            log.warn("Refresh token reused, revoking token family {}", stored.getFamilyId());
+            refreshTokenRepository.deleteByFamilyId(stored.getFamilyId());
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token is invalid or expired.");
+        }
+        return stored;
+    }
+
+    @Transactional
+    public void revoke(String token) {
+        RefreshToken stored = refreshTokenRepository.findByTokenDigest(JwtTokenUtil.digest(token));
+        if (stored != null) {
+            refreshTokenRepository.deleteByFamilyId(stored.getFamilyId());
+        }
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(System.currentTimeMillis());
+    }
+}
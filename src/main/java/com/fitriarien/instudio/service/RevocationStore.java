@@ -0,0 +1,15 @@
+package com.fitriarien.instudio.service;
+
+import com.fitriarien.instudio.entity.RevokedToken;
+
+import java.util.List;
+
+public interface RevocationStore {
+    void revoke(String tokenDigest, long fingerprint, long expiresAt);
+
+    // unexpired revocations after the (revokedAt, id) position, ordered by revokedAt then id. A revocation must be
+    // visible here within jwt.revocation.sync-overlap-ms of its revokedAt, see TokenBlacklistService.syncFromStore
+    List<RevokedToken> findRevokedSince(long revokedAt, long afterId);
+
+    void purgeExpired(long now);
+}
@@ -1,19 +1,190 @@
 package com.fitriarien.instudio.service;
 
+import com.fitriarien.instudio.configuration.JwtTokenUtil;
+import com.fitriarien.instudio.entity.RevokedToken;
+import io.jsonwebtoken.JwtException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.Set;
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+@Slf4j
 @Service
-public class TokenBlacklistService {
-    private final Set<String> blacklist = new HashSet<>();
+public class TokenBlacklistService implements MetricsSource {
+
+    private static final int SYNC_BATCH_SIZE = 1000;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @Autowired
+    private RevocationStore revocationStore;
+
+    @Value("${jwt.blacklist.bloom.expected-insertions:100000}")
+    private int expectedInsertions;
+
+    @Value("${jwt.blacklist.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // how far below the newest revokedAt each sync starts reading again; must cover the longest a revocation can take
+    // to commit after it was stamped plus the clock skew between nodes
+    @Value("${jwt.revocation.sync-overlap-ms:30000}")
+    private long syncOverlapMillis;
+
+    // near-cache of the revocation store: signature digest -> revocation, dropped once the token could no longer be used
+    private final Map<String, Revocation> blacklist = new ConcurrentHashMap<>();
+
+    // newest revokedAt already applied to the near-cache
+    private volatile long highWaterMark;
+
+    private volatile long lastSyncAt;
+
+    // rebuilt from the live entries on every purge, so expired tokens stop costing false positives
+    private volatile TokenBloomFilter bloomFilter;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAdder bloomNegatives = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+    private final LongAdder purged = new LongAdder();
+    private final LongAdder syncFailures = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        bloomFilter = new TokenBloomFilter(expectedInsertions, falsePositiveRate);
+    }
 
     public void addToBlacklist(String token) {
-        blacklist.add(token);
+        if (token == null) {
+            return;
+        }
+
+        long expiresAt;
+        try {
+            expiresAt = jwtTokenUtil.getExpirationDateFromToken(token).getTime();
+        } catch (JwtException | IllegalArgumentException e) {
+            // expired or invalid tokens are already rejected by the request filter
+            return;
+        }
+        byte[] signature = JwtTokenUtil.getSignatureBytes(token);
+        if (signature == null) {
+            return;
+        }
+
+        // keyed on the signature, not the token text, so a re-encoded copy of the token is revoked too
+        String digest = JwtTokenUtil.digest(signature);
+        long fingerprint = TokenBloomFilter.fingerprint(signature);
+        revocationStore.revoke(digest, fingerprint, expiresAt);
+        apply(digest, fingerprint, expiresAt);
+    }
+
+    private synchronized void apply(String digest, long fingerprint, long expiresAt) {
+        blacklist.put(digest, new Revocation(expiresAt, fingerprint));
+        bloomFilter.put(fingerprint);
+    }
+
+    // pull revocations recorded by other nodes since the last sync. A revocation is stamped before it commits, so one
+    // can become visible after newer ones were already read; every sync therefore re-reads the overlap window below
+    // the high-water mark. Re-applying a revocation is harmless.
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    public void syncFromStore() {
+        try {
+            long revokedAt = Math.max(0, highWaterMark - syncOverlapMillis);
+            long afterId = 0;
+            List<RevokedToken> revokedTokens;
+            do {
+                revokedTokens = revocationStore.findRevokedSince(revokedAt, afterId);
+                for (RevokedToken revokedToken : revokedTokens) {
+                    apply(revokedToken.getTokenDigest(), revokedToken.getFingerprint(), revokedToken.getExpiresAt());
+                    revokedAt = revokedToken.getRevokedAt();
+                    afterId = revokedToken.getId();
+                    highWaterMark = Math.max(highWaterMark, revokedAt);
+                }
+            } while (revokedTokens.size() >= SYNC_BATCH_SIZE);
+            lastSyncAt = System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            syncFailures.increment();
+            log.warn("Unable to sync revoked tokens from {}: {}", revocationStore.getClass().getSimpleName(), e.getMessage());
+        }
     }
 
     public boolean isBlacklisted(String token) {
-        return blacklist.contains(token);
+        long start = System.nanoTime();
+        try {
+            byte[] signature = JwtTokenUtil.getSignatureBytes(token);
+            if (signature == null) {
+                // unsigned or malformed, the signature check turns it away
+                return false;
+            }
+            if (!bloomFilter.mightContain(TokenBloomFilter.fingerprint(signature))) {
+                bloomNegatives.increment();
+                return false;
+            }
+
+            Revocation revocation = blacklist.get(JwtTokenUtil.digest(signature));
+            if (revocation == null) {
+                bloomFalsePositives.increment();
+                return false;
+            }
+            return revocation.getExpiresAt() > System.currentTimeMillis();
+        } finally {
+            lookups.increment();
+            lookupNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.blacklist.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            int before = blacklist.size();
+            blacklist.values().removeIf(revocation -> revocation.getExpiresAt() <= now);
+            purged.add(Math.max(0, before - blacklist.size()));
+
+            TokenBloomFilter rebuilt = new TokenBloomFilter(Math.max(expectedInsertions, blacklist.size() * 2), falsePositiveRate);
+            blacklist.values().forEach(revocation -> rebuilt.put(revocation.getFingerprint()));
+            bloomFilter = rebuilt;
+        }
+        revocationStore.purgeExpired(now);
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "tokenBlacklist";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        long count = lookups.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", blacklist.size());
+        metrics.put("lookups", count);
+        metrics.put("avgLookupNanos", count == 0 ? 0 : lookupNanos.sum() / count);
+        metrics.put("bloomNegatives", bloomNegatives.sum());
+        metrics.put("bloomFalsePositives", bloomFalsePositives.sum());
+        metrics.put("bloomBits", bloomFilter.getBitCount());
+        metrics.put("purged", purged.sum());
+        metrics.put("store", revocationStore.getClass().getSimpleName());
+        metrics.put("highWaterMark", highWaterMark);
+        metrics.put("syncLagMillis", lastSyncAt == 0 ? -1 : System.currentTimeMillis() - lastSyncAt);
+        metrics.put("syncFailures", syncFailures.sum());
+        return metrics;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Revocation {
+        private final long expiresAt;
+        private final long fingerprint;
     }
 }
@@ -0,0 +1,65 @@
+package com.fitriarien.instudio.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compact membership filter for revoked tokens. Probe positions are derived from the last bytes of the decoded
+ * signature, so every accepted spelling of a token maps to the same bits and a lookup never walks the whole token.
+ */
+class TokenBloomFilter {
+
+    private static final int FINGERPRINT_BYTES = 16;
+
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    TokenBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.bits = new AtomicLongArray((bitCount + 63) >>> 6);
+    }
+
+    static long fingerprint(byte[] signature) {
+        long h = 0;
+        int start = Math.max(0, signature.length - FINGERPRINT_BYTES);
+        for (int i = start; i < signature.length; i++) {
+            h = Long.rotateLeft(h, 8) ^ (signature[i] & 0xff);
+        }
+        // fmix64 from MurmurHash3, spreads the packed bytes over all bits
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    void put(long fingerprint) {
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int index = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << index;
+            bits.accumulateAndGet(index >>> 6, mask, (current, bit) -> current | bit);
+        }
+    }
+
+    boolean mightContain(long fingerprint) {
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int getBitCount() {
+        return bitCount;
+    }
+}
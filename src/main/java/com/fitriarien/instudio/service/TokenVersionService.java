@@ -0,0 +1,101 @@
+package com.fitriarien.instudio.service;
+
+import com.fitriarien.instudio.entity.User;
+import com.fitriarien.instudio.repository.UserRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class TokenVersionService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    // bounds how long another node may keep accepting tokens after a revoke-all
+    @Value("${jwt.token-version.cache-ttl-ms:60000}")
+    private long cacheTtlMillis;
+
+    @Value("${jwt.token-version.cache-max-size:10000}")
+    private int cacheMaxSize;
+
+    // user id -> current token version; bounded by size here and by age in purgeExpired
+    private final Map<String, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    public boolean isCurrent(String userId, long tokenVersion) {
+        return tokenVersion >= getCurrentVersion(userId);
+    }
+
+    public long getCurrentVersion(String userId) {
+        long now = System.currentTimeMillis();
+        CachedVersion cached = versions.get(userId);
+        if (cached == null || cached.getLoadedAt() + cacheTtlMillis < now) {
+            long version = userRepository.findById(userId)
+                    .map(TokenVersionService::versionOf)
+                    .orElse(Long.MAX_VALUE);
+            cached = new CachedVersion(version, now);
+            // full: drop whichever entries the iterator hands out first, they are reloaded on their next use
+            Iterator<String> userIds = versions.keySet().iterator();
+            while (versions.size() >= cacheMaxSize && userIds.hasNext()) {
+                userIds.next();
+                userIds.remove();
+            }
+            versions.put(userId, cached);
+        }
+        return cached.getVersion();
+    }
+
+    // invalidate every token issued to the user so far
+    @Transactional
+    public void revokeAll(String userId) {
+        userRepository.incrementTokenVersion(userId);
+        // the bulk update skips entity callbacks, so the cached copy has to go explicitly
+        userCache.evict(userId);
+        invalidate(userId);
+    }
+
+    // drop the cached version once the surrounding transaction has committed
+    public void invalidate(String userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.remove(userId);
+                }
+            });
+        } else {
+            versions.remove(userId);
+        }
+    }
+
+    // entries past their TTL are reloaded anyway, so there is no point keeping them for users who went quiet
+    @Scheduled(fixedDelayString = "${jwt.token-version.cache-ttl-ms:60000}")
+    public void purgeExpired() {
+        long expiredBefore = System.currentTimeMillis() - cacheTtlMillis;
+        versions.values().removeIf(cached -> cached.getLoadedAt() < expiredBefore);
+    }
+
+    public static long versionOf(User user) {
+        return user.getTokenVersion() == null ? 0 : user.getTokenVersion();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedVersion {
+        private final long version;
+        private final long loadedAt;
+    }
+}
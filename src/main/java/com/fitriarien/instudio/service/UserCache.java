@@ -0,0 +1,183 @@
+package com.fitriarien.instudio.service;
+
+import com.fitriarien.instudio.entity.User;
+import com.fitriarien.instudio.repository.UserRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded read-through cache of users, indexed by id and by username. Entries are detached copies, so callers can't
+ * change what other requests see, and are dropped whenever the user is written through JPA.
+ */
+@Service
+public class UserCache implements MetricsSource {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${cache.users.max-size:10000}")
+    private int maxSize;
+
+    @Value("${cache.users.ttl-ms:60000}")
+    private long ttlMillis;
+
+    // the JWT filter loads its principal through this cache, so entries must not outlive the token-version cache,
+    // which bounds how long another node's revoke-all or delete can go unnoticed
+    @Value("${jwt.token-version.cache-ttl-ms:60000}")
+    private long tokenVersionTtlMillis;
+
+    // bumped on every eviction; a load that overlaps one isn't cached, since it may have read the row before the change
+    private final AtomicLong evictionStamp = new AtomicLong();
+
+    // user id -> cached copy
+    private final Map<String, CachedUser> byId = new ConcurrentHashMap<>();
+
+    // username -> user id
+    private final Map<String, String> byUsername = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public Optional<User> findById(String id) {
+        CachedUser cached = byId.get(id);
+        if (isFresh(cached)) {
+            hits.increment();
+            return Optional.of(copyOf(cached.getUser()));
+        }
+        misses.increment();
+        long stamp = evictionStamp.get();
+        return userRepository.findById(id).map(user -> put(user, stamp));
+    }
+
+    public User findByUsername(String username) {
+        String id = byUsername.get(username);
+        CachedUser cached = id == null ? null : byId.get(id);
+        if (isFresh(cached) && cached.getUser().getUsername().equals(username)) {
+            hits.increment();
+            return copyOf(cached.getUser());
+        }
+        misses.increment();
+        long stamp = evictionStamp.get();
+        User user = userRepository.findByUsername(username);
+        return user == null ? null : put(user, stamp);
+    }
+
+    // drop the user now and again once the surrounding transaction has committed; a miss that read the row before
+    // the commit is turned away by the stamp, see put
+    public void evict(String id) {
+        evictNow(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(id);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        evictionStamp.incrementAndGet();
+        byId.clear();
+        byUsername.clear();
+    }
+
+    private void evictNow(String id) {
+        evictionStamp.incrementAndGet();
+        remove(id);
+    }
+
+    private void remove(String id) {
+        CachedUser removed = byId.remove(id);
+        if (removed != null) {
+            byUsername.remove(removed.getUser().getUsername(), id);
+        }
+    }
+
+    private User put(User user, long stamp) {
+        User copy = copyOf(user);
+        if (evictionStamp.get() != stamp) {
+            return copyOf(copy);
+        }
+        if (byId.size() >= maxSize) {
+            evictExpired();
+        }
+        Iterator<String> ids = byId.keySet().iterator();
+        while (byId.size() >= maxSize && ids.hasNext()) {
+            remove(ids.next());
+            evictions.increment();
+        }
+        byId.put(copy.getId(), new CachedUser(copy, System.currentTimeMillis()));
+        byUsername.put(copy.getUsername(), copy.getId());
+        // an eviction that ran between the check above and the insert may have missed the new entry
+        if (evictionStamp.get() != stamp) {
+            remove(copy.getId());
+        }
+        return copyOf(copy);
+    }
+
+    private void evictExpired() {
+        for (Map.Entry<String, CachedUser> entry : byId.entrySet()) {
+            if (!isFresh(entry.getValue())) {
+                remove(entry.getKey());
+                evictions.increment();
+            }
+        }
+    }
+
+    private boolean isFresh(CachedUser cached) {
+        return cached != null
+                && cached.getLoadedAt() + Math.min(ttlMillis, tokenVersionTtlMillis) > System.currentTimeMillis();
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setUsername(user.getUsername());
+        copy.setPassword(user.getPassword());
+        copy.setRole(user.getRole());
+        copy.setName(user.getName());
+        copy.setEmail(user.getEmail());
+        copy.setPhone(user.getPhone());
+        copy.setAddress(user.getAddress());
+        copy.setStatus(user.getStatus());
+        copy.setTokenVersion(user.getTokenVersion());
+        return copy;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "userCache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", byId.size());
+        metrics.put("hits", hits.sum());
+        metrics.put("misses", misses.sum());
+        metrics.put("evictions", evictions.sum());
+        return metrics;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedUser {
+        private final User user;
+        private final long loadedAt;
+    }
+}
@@ -0,0 +1,30 @@
+package com.fitriarien.instudio.service;
+
+import com.fitriarien.instudio.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Evicts users from {@link UserCache} on every insert, update and delete that goes through JPA. Bulk JPQL updates
+ * bypass entity callbacks and have to evict explicitly.
+ */
+@Component
+public class UserCacheListener {
+
+    // lazy, because Hibernate asks for the listener while the repositories the cache needs are still being built
+    @Autowired
+    @Lazy
+    private UserCache userCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        userCache.evict(user.getId());
+    }
+}
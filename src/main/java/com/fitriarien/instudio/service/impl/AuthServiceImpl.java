@@ -1,32 +1,37 @@
 package com.fitriarien.instudio.service.impl;
 
 import com.fitriarien.instudio.configuration.JwtTokenUtil;
+import com.fitriarien.instudio.configuration.RateLimitedLogger;
+import com.fitriarien.instudio.configuration.UserPrincipal;
+import com.fitriarien.instudio.entity.RefreshToken;
 import com.fitriarien.instudio.entity.User;
+import com.fitriarien.instudio.exception.RetryLaterException;
 import com.fitriarien.instudio.model.response.TokenResponse;
 import com.fitriarien.instudio.model.response.UserResponse;
 import com.fitriarien.instudio.model.request.RegisterUserRequest;
 import com.fitriarien.instudio.model.request.LoginUserRequest;
+import com.fitriarien.instudio.model.request.RefreshTokenRequest;
 import com.fitriarien.instudio.repository.UserRepository;
 import com.fitriarien.instudio.service.AuthService;
+import com.fitriarien.instudio.service.PasswordHashingService;
+import com.fitriarien.instudio.service.RefreshTokenService;
+import com.fitriarien.instudio.service.TokenVersionService;
+import com.fitriarien.instudio.service.UserCache;
 import com.fitriarien.instudio.service.ValidationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.DisabledException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Duration;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
@@ -35,14 +40,14 @@ public class AuthServiceImpl implements UserDetailsService, AuthService {
 
 	public static final Logger logger = LoggerFactory.getLogger(AuthServiceImpl.class);
 
-	@Autowired
-	private UserRepository userRepository;
+	// failed logins come in bursts during credential stuffing; one line per burst is enough
+	private static final RateLimitedLogger failedLoginLog = new RateLimitedLogger(logger, Level.ERROR, Duration.ofSeconds(10));
 
 	@Autowired
-	private PasswordEncoder bcryptEncoder;
+	private UserRepository userRepository;
 
 	@Autowired
-	private AuthenticationManager authenticationManager;
+	private PasswordHashingService passwordHashingService;
 
 	@Autowired
 	private JwtTokenUtil jwtTokenUtil;
@@ -50,18 +55,25 @@ public class AuthServiceImpl implements UserDetailsService, AuthService {
 	@Autowired
 	private ValidationService validationService;
 
+	@Autowired
+	private RefreshTokenService refreshTokenService;
+
+	@Autowired
+	private UserCache userCache;
+
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-		logger.info("Loading User : {}", username);
-		User user = userRepository.findByUsername(username);
+		logger.debug("Loading User : {}", username);
+		User user = userCache.findByUsername(username);
 
 		if (user == null) {
 			throw new UsernameNotFoundException("User not found with username: " + username);
 		}
-		return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), new ArrayList<>());
+		return UserPrincipal.from(user);
 	}
 
-	@Transactional
+	// no transaction here: hashing can wait on the hashing pool for seconds and must not hold a pooled connection
+	// meanwhile, so the lookup and the insert each run in the repository's own short transaction
 	@Override
 	public UserResponse register(RegisterUserRequest request) {
 		validationService.validate(request);
@@ -75,7 +87,7 @@ public class AuthServiceImpl implements UserDetailsService, AuthService {
 				User newUser = new User();
 				newUser.setId(UUID.randomUUID().toString());
 				newUser.setUsername(request.getUsername());
-				newUser.setPassword(bcryptEncoder.encode(request.getPassword()));
+				newUser.setPassword(passwordHashingService.encode(request.getPassword()));
 				newUser.setName(request.getName());
 				newUser.setRole(request.getRole());
 				newUser.setEmail(request.getEmail());
@@ -83,7 +95,12 @@ public class AuthServiceImpl implements UserDetailsService, AuthService {
 				newUser.setAddress(request.getAddress());
 				newUser.setStatus(1L);
 
-				userRepository.save(newUser);
+				try {
+					userRepository.saveAndFlush(newUser);
+				} catch (DataIntegrityViolationException e) {
+					// a concurrent registration took the username between the check and the insert
+					throw new ResponseStatusException(HttpStatus.IM_USED, "Username has been already used. Please change the username.");
+				}
 				return toResponse(newUser);
 			} else {
 				throw new ResponseStatusException(HttpStatus.IM_USED, "Username has been already used. Please change the username.");
@@ -134,58 +151,64 @@ public class AuthServiceImpl implements UserDetailsService, AuthService {
 	}
 
 	public boolean existUsername(String username) {
-		boolean isExist = false;
-		List<User> users = userRepository.findAll();
-		for (User curr: users) {
-			if (username.equals(curr.getUsername())) {
-				isExist = true;
-				break;
-			} else {
-				isExist = false;
-			}
-		}
-		return isExist;
+		return userRepository.existsByUsername(username);
 	}
 
-	public void authenticate(String username, String password) throws Exception {
-		try {
-			authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
-		} catch (DisabledException e) {
-			throw new Exception("USER_DISABLED", e);
-		} catch (BadCredentialsException e) {
-			throw new Exception("INVALID_CREDENTIALS", e);
-		}
-	}
-
-	@Transactional
+	// no transaction here for the same reason as register; the hash upgrade and the refresh token are short writes
 	@Override
-	public TokenResponse login(LoginUserRequest request) throws Exception {
+	public TokenResponse login(LoginUserRequest request) {
 		validationService.validate(request);
 
 		// check registered username
 		final User user = userRepository.findByUsername(request.getUsername());
 		if (user == null) {
-			logger.error("Unable to login. Username of {} is not found.", request.getUsername());
+			failedLoginLog.log("Unable to login. Username of {} is not found.", request.getUsername());
 			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Login Failed: Username & password doesn't match.");
 		}
 		// check password
-		if (!(bcryptEncoder.matches(request.getPassword(), user.getPassword()))) {
-			logger.error("Unable to login. Password is wrong.");
+		if (!(passwordHashingService.matches(request.getPassword(), user.getPassword()))) {
+			failedLoginLog.log("Unable to login. Password is wrong.");
 			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Login Failed: Username & password doesn't match.");
 		}
+		// re-hash with the current cost while the plain password is at hand
+		if (passwordHashingService.upgradeEncoding(user.getPassword())) {
+			try {
+				String upgraded = passwordHashingService.encode(request.getPassword());
+				if (userRepository.updatePassword(user.getId(), user.getPassword(), upgraded) > 0) {
+					// bulk update, so the entity listener does not see it
+					userCache.evict(user.getId());
+					user.setPassword(upgraded);
+				}
+			} catch (RetryLaterException e) {
+				logger.warn("Skipping password hash upgrade for {}: hashing pool is busy.", user.getUsername());
+			}
+		}
 
-		// authenticate
-		authenticate(request.getUsername(), request.getPassword());
-		// load and set userDetails
-		final UserDetails userDetails = loadUserByUsername(request.getUsername());
-		// load and set token
-		// final JwtToken jwtToken = new JwtToken(jwtTokenUtil.generateToken(userDetails));
+		// the user fetched and verified above is the authenticated principal
+		return toTokenResponse(user, refreshTokenService.issue(user));
+	}
+
+	@Transactional(noRollbackFor = ResponseStatusException.class)
+	@Override
+	public TokenResponse refresh(RefreshTokenRequest request) {
+		validationService.validate(request);
+
+		final RefreshToken current = refreshTokenService.consume(request.getRefreshToken());
+		final User user = userRepository.findById(current.getUserId()).orElse(null);
+		if (user == null || TokenVersionService.versionOf(user) > current.getTokenVersion()) {
+			throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Refresh token is invalid or expired.");
+		}
+
+		return toTokenResponse(user, refreshTokenService.issue(user, current.getFamilyId()));
+	}
 
+	private TokenResponse toTokenResponse(User user, String refreshToken) {
 		return TokenResponse.builder()
 				.id(user.getId())
 				.username(user.getUsername())
 				.name(user.getName())
-				.token(jwtTokenUtil.generateToken(userDetails))
+				.token(jwtTokenUtil.generateToken(UserPrincipal.from(user)))
+				.refreshToken(refreshToken)
 				.role(user.getRole())
 				.status(user.getStatus())
 				.build();
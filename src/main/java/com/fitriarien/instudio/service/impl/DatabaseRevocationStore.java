@@ -0,0 +1,47 @@
+package com.fitriarien.instudio.service.impl;
+
+import com.fitriarien.instudio.entity.RevokedToken;
+import com.fitriarien.instudio.repository.RevokedTokenRepository;
+import com.fitriarien.instudio.service.RevocationStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "database")
+public class DatabaseRevocationStore implements RevocationStore {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Override
+    public void revoke(String tokenDigest, long fingerprint, long expiresAt) {
+        try {
+            // the insert runs with RevokedTokenRepository.INSERT_TIMEOUT_SECONDS, so the row is committed, or gone,
+            // within that long of revokedAt
+            revokedTokenRepository.save(new RevokedToken(null, tokenDigest, fingerprint, expiresAt, System.currentTimeMillis()));
+        } catch (DataIntegrityViolationException e) {
+            // already revoked by another request or node
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RevokedToken> findRevokedSince(long revokedAt, long afterId) {
+        return revokedTokenRepository.findRevokedSince(revokedAt, afterId, System.currentTimeMillis(),
+                PageRequest.of(0, BATCH_SIZE));
+    }
+
+    @Override
+    @Transactional
+    public void purgeExpired(long now) {
+        revokedTokenRepository.deleteExpired(now);
+    }
+}
@@ -2,21 +2,24 @@ package com.fitriarien.instudio.service.impl;
 
 import com.fitriarien.instudio.entity.Image;
 import com.fitriarien.instudio.entity.Product;
-import com.fitriarien.instudio.entity.User;
 import com.fitriarien.instudio.model.request.UploadImageRequest;
 import com.fitriarien.instudio.model.response.ImageResponse;
 import com.fitriarien.instudio.repository.ImageRepository;
 import com.fitriarien.instudio.repository.ProductRepository;
-import com.fitriarien.instudio.repository.UserRepository;
+import com.fitriarien.instudio.service.CountCache;
+import com.fitriarien.instudio.service.CurrentUser;
 import com.fitriarien.instudio.service.ImageService;
+import com.fitriarien.instudio.service.ProductNameIndex;
 import com.fitriarien.instudio.service.ValidationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -35,27 +38,30 @@ public class ImageServiceImpl implements ImageService {
     private ProductRepository productRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUser currentUser;
+
+    @Autowired
+    private ProductNameIndex productNameIndex;
 
     @Autowired
     private ValidationService validationService;
 
+    @Autowired
+    private CountCache countCache;
+
     @Override
+    @PreAuthorize("hasRole('ADMIN')")
     @Transactional
     public ImageResponse upload(String userId, UploadImageRequest request) {
         validationService.validate(request);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unauthorized"));
+        currentUser.require(userId);
 
-        if (!user.getRole().equalsIgnoreCase("admin") || user.getStatus() == 0) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to upload image.");
-        }
-
-        Product product = productRepository.findByProductName(request.getProductName());
-        if (product == null) {
+        String productId = productNameIndex.findId(request.getProductName());
+        if (productId == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
         }
+        Product product = productRepository.getReferenceById(productId);
 
         Image image = new Image();
         image.setImageId(UUID.randomUUID().toString());
@@ -63,20 +69,17 @@ public class ImageServiceImpl implements ImageService {
         image.setImagePath(request.getImagePath());
         image.setImageStatus(1L);
         image.setProduct(product);
-        image.setUser(user);
+        image.setUser(currentUser.getReference());
 
         imageRepository.save(image);
         return toImageResponse(image);
     }
 
     @Override
+    @PreAuthorize("hasRole('ADMIN')")
     @Transactional
     public void delete(String imageId, String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unauthorized"));
-        if (!user.getRole().equalsIgnoreCase("admin") && user.getStatus() == 0) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to upload image.");
-        }
+        currentUser.require(userId);
 
         Image image = imageRepository.findById(imageId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found"));
@@ -88,7 +91,7 @@ public class ImageServiceImpl implements ImageService {
     @Override
     @Transactional(readOnly = true)
     public ImageResponse get(String imageId) {
-        Image image = imageRepository.findById(imageId)
+        Image image = imageRepository.findActiveById(imageId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Image not found"));
 
         return toImageResponse(image);
@@ -97,13 +100,12 @@ public class ImageServiceImpl implements ImageService {
     @Override
     @Transactional(readOnly = true)
     public List<ImageResponse> getList() {
-        List<Image> images = imageRepository.findAll();
+        List<ImageRepository.ImageRow> images = imageRepository.findAllActive();
         if (images.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, "No Content");
         }
 
         return images.stream()
-                .filter(image -> image.getImageStatus() != 0)
                 .map(this::toImageResponse)
                 .collect(Collectors.toList());
     }
@@ -111,21 +113,45 @@ public class ImageServiceImpl implements ImageService {
     @Override
     @Transactional(readOnly = true)
     public Page<ImageResponse> getByPage(int page, int size) {
-        Specification<Image> specification = Specification.where((root, query, criteriaBuilder) ->
-                criteriaBuilder.notEqual(root.get("imageStatus"), 0));
+        Slice<ImageResponse> images = getSliceByPage(page, size);
+        long total = countCache.count(Image.class, "active", imageRepository::countActive);
+        return new PageImpl<>(images.getContent(), images.getPageable(), total);
+    }
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Image> images = imageRepository.findAll(specification, pageable);
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ImageResponse> getSliceByPage(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("imageId"));
+        Slice<ImageRepository.ImageRow> images = imageRepository.findAllActive(pageable);
 
         if (images.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, "No Content");
         }
 
-        List<ImageResponse> imageResponses = images.getContent()
-                .stream()
-                .map(this::toImageResponse)
-                .collect(Collectors.toList());
-        return new PageImpl<>(imageResponses, pageable, images.getTotalElements());
+        return images.map(this::toImageResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ImageResponse> getAfter(String imageId, int size) {
+        Slice<ImageRepository.ImageRow> images = imageRepository.findActiveAfter(imageId, PageRequest.of(0, size, Sort.by("imageId")));
+
+        if (images.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NO_CONTENT, "No Content");
+        }
+
+        return images.map(this::toImageResponse);
+    }
+
+    private ImageResponse toImageResponse(ImageRepository.ImageRow image) {
+        return ImageResponse.builder()
+                .imageId(image.getImageId())
+                .imageAlt(image.getImageAlt())
+                .imagePath(image.getImagePath())
+                .imageStatus(image.getImageStatus())
+                .productId(image.getProductId())
+                .userId(image.getUserId())
+                .build();
     }
 
     private ImageResponse toImageResponse(Image image) {
@@ -0,0 +1,45 @@
+package com.fitriarien.instudio.service.impl;
+
+import com.fitriarien.instudio.entity.RevokedToken;
+import com.fitriarien.instudio.service.RevocationStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+@Service
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRevocationStore implements RevocationStore {
+
+    private long sequence;
+
+    private long lastRevokedAt;
+
+    // id order, which revoke keeps identical to (revokedAt, id) order
+    private final ConcurrentSkipListMap<Long, RevokedToken> revokedTokens = new ConcurrentSkipListMap<>();
+
+    @Override
+    public synchronized void revoke(String tokenDigest, long fingerprint, long expiresAt) {
+        long id = ++sequence;
+        // never step back, even if the clock does
+        lastRevokedAt = Math.max(lastRevokedAt, System.currentTimeMillis());
+        revokedTokens.put(id, new RevokedToken(id, tokenDigest, fingerprint, expiresAt, lastRevokedAt));
+    }
+
+    @Override
+    public List<RevokedToken> findRevokedSince(long revokedAt, long afterId) {
+        long now = System.currentTimeMillis();
+        return revokedTokens.values().stream()
+                .filter(revokedToken -> revokedToken.getRevokedAt() > revokedAt
+                        || (revokedToken.getRevokedAt() == revokedAt && revokedToken.getId() > afterId))
+                .filter(revokedToken -> revokedToken.getExpiresAt() > now)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void purgeExpired(long now) {
+        revokedTokens.values().removeIf(revokedToken -> revokedToken.getExpiresAt() <= now);
+    }
+}
@@ -3,17 +3,18 @@ package com.fitriarien.instudio.service.impl;
 import com.fitriarien.instudio.entity.Order;
 import com.fitriarien.instudio.entity.OrderDetail;
 import com.fitriarien.instudio.entity.Product;
-import com.fitriarien.instudio.entity.User;
 import com.fitriarien.instudio.model.request.CreateOrderDetRequest;
 import com.fitriarien.instudio.model.response.OrderResponse;
 import com.fitriarien.instudio.repository.OrderDetRepository;
 import com.fitriarien.instudio.repository.OrderRepository;
 import com.fitriarien.instudio.repository.ProductRepository;
-import com.fitriarien.instudio.repository.UserRepository;
+import com.fitriarien.instudio.service.CurrentUser;
 import com.fitriarien.instudio.service.OrderDetService;
+import com.fitriarien.instudio.service.ProductNameIndex;
 import com.fitriarien.instudio.service.ValidationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -31,23 +32,22 @@ public class OrderDetServiceImpl implements OrderDetService {
     @Autowired
     private ProductRepository productRepository;
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUser currentUser;
+    @Autowired
+    private ProductNameIndex productNameIndex;
     @Autowired
     private ValidationService validationService;
 
     @Override
+    @PreAuthorize("hasRole('USER') and !hasRole('CUSTOMER')")
     @Transactional
     public OrderResponse create(String userId, String orderId, CreateOrderDetRequest request) {
         validationService.validate(request);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-
-        if (user.getStatus() == 0 || user.getRole().equalsIgnoreCase("customer")) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to create order detail.");
-        }
+        currentUser.require(userId);
 
-        Product product = productRepository.findByProductName(request.getProductName());
+        String productId = productNameIndex.findId(request.getProductName());
+        Product product = productId == null ? null : productRepository.getReferenceById(productId);
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
         order.setOrderAmount(order.getOrderAmount() + request.getProductCost());
@@ -62,6 +62,8 @@ public class OrderDetServiceImpl implements OrderDetService {
         orderDetail.setSubtotal(request.getProductCost());
 
         orderDetRepository.save(orderDetail);
+        // keep the loaded side of the association in step, the response is built from it before commit
+        order.getOrderDetailList().add(orderDetail);
         orderRepository.save(order);
         return orderService.toOrderResponse(order);
     }
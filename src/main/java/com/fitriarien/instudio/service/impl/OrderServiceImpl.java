@@ -1,11 +1,16 @@
 package com.fitriarien.instudio.service.impl;
 
 import com.fitriarien.instudio.entity.Order;
-import com.fitriarien.instudio.entity.User;
+import com.fitriarien.instudio.entity.OrderDetail;
 import com.fitriarien.instudio.model.request.CreateOrderRequest;
+import com.fitriarien.instudio.model.response.OrderDetResponse;
 import com.fitriarien.instudio.model.response.OrderResponse;
+import com.fitriarien.instudio.model.response.PaymentResponse;
+import com.fitriarien.instudio.repository.OrderDetRepository;
 import com.fitriarien.instudio.repository.OrderRepository;
-import com.fitriarien.instudio.repository.UserRepository;
+import com.fitriarien.instudio.repository.PaymentRepository;
+import com.fitriarien.instudio.service.CountCache;
+import com.fitriarien.instudio.service.CurrentUser;
 import com.fitriarien.instudio.service.OrderService;
 import com.fitriarien.instudio.service.ValidationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,8 +18,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -22,8 +31,11 @@ import org.springframework.web.server.ResponseStatusException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,21 +44,25 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private OrderRepository orderRepository;
     @Autowired
-    private UserRepository userRepository;
+    private OrderDetRepository orderDetRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private CurrentUser currentUser;
     @Autowired
     private ValidationService validationService;
+    @Autowired
+    private CountCache countCache;
+    @Autowired
+    private PaymentServiceImpl paymentService;
 
     @Override
+    @PreAuthorize("hasRole('CUSTOMER')")
     @Transactional
     public OrderResponse create(String userId, CreateOrderRequest request) {
         validationService.validate(request);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-
-        if (!user.getRole().equalsIgnoreCase("customer") || user.getStatus() == 0) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to order.");
-        }
+        currentUser.require(userId);
 
         Order order = new Order();
         order.setOrderId(UUID.randomUUID().toString());
@@ -56,45 +72,31 @@ public class OrderServiceImpl implements OrderService {
         order.setVisitAddress(request.getVisitAddress());
         order.setOrderAmount(0D);
         order.setOrderStatus(0L);
-        order.setUser(user);
+        order.setUser(currentUser.getReference());
 
         orderRepository.save(order);
         return toOrderResponse(order);
     }
 
     @Override
+    @PreAuthorize("hasRole('USER')")
     @Transactional(readOnly = true)
     public List<OrderResponse> getOrderByUser(String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-
-        if (user.getStatus() == 0) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to create product.");
-        }
+        currentUser.require(userId);
 
-        List<Order> orders = orderRepository.findByUserId(userId);
+        List<OrderRepository.OrderRow> orders = orderRepository.findRowsByUserId(userId);
         if (orders.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, "Data not found");
         }
 
-        List<OrderResponse> orderResponses = new ArrayList<>();
-        for (Order order : orders) {
-            OrderResponse orderResponse = toOrderResponse(order);
-            orderResponses.add(orderResponse);
-        }
-
-        return orderResponses;
+        return toOrderResponses(orders);
     }
 
     @Override
+    @PreAuthorize("hasRole('USER')")
     @Transactional(readOnly = true)
     public OrderResponse get(String userId, String orderId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-
-        if (user.getStatus() == 0) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to create product.");
-        }
+        currentUser.require(userId);
 
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
@@ -103,52 +105,57 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @PreAuthorize("hasRole('USER')")
     @Transactional(readOnly = true)
     public List<OrderResponse> getOrders(String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        currentUser.require(userId);
 
-        if (user.getStatus() == 0) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to create product.");
-        }
-
-        List<Order> orders = orderRepository.findAll();
+        List<OrderRepository.OrderRow> orders = orderRepository.findRowsBy();
         if (orders.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, "Data not found");
         }
 
-        List<OrderResponse> orderResponses = new ArrayList<>();
-        for (Order order : orders) {
-            OrderResponse orderResponse = toOrderResponse(order);
-            orderResponses.add(orderResponse);
-        }
-
-        return orderResponses;
+        return toOrderResponses(orders);
     }
 
     @Override
+    @PreAuthorize("hasRole('USER')")
     @Transactional(readOnly = true)
     public Page<OrderResponse> getOrdersByPage(String userId, int page, int size) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        Slice<OrderResponse> orders = getOrdersSliceByPage(userId, page, size);
+        long total = countCache.count(Order.class, "all", orderRepository::count);
+        return new PageImpl<>(orders.getContent(), orders.getPageable(), total);
+    }
 
-        if (user.getStatus() == 0) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to create product.");
-        }
+    @Override
+    @PreAuthorize("hasRole('USER')")
+    @Transactional(readOnly = true)
+    public Slice<OrderResponse> getOrdersSliceByPage(String userId, int page, int size) {
+        currentUser.require(userId);
 
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Order> orders = orderRepository.findAll(pageable);
+        Pageable pageable = PageRequest.of(page, size, Sort.by("orderId"));
+        Slice<OrderRepository.OrderRow> orders = orderRepository.findRowsBy(pageable);
 
         if (orders.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, "Data not found");
         }
 
-        List<OrderResponse> orderResponses = orders.getContent().stream()
-                .map(this::toOrderResponse)
-                .collect(Collectors.toList());
+        return new SliceImpl<>(toOrderResponses(orders.getContent()), orders.getPageable(), orders.hasNext());
+    }
 
-        return new PageImpl<>(orderResponses, pageable, orders.getTotalElements());
+    @Override
+    @PreAuthorize("hasRole('USER')")
+    @Transactional(readOnly = true)
+    public Slice<OrderResponse> getOrdersAfter(String userId, String orderId, int size) {
+        currentUser.require(userId);
+
+        Slice<OrderRepository.OrderRow> orders = orderRepository.findRowsByOrderIdGreaterThan(orderId, PageRequest.of(0, size, Sort.by("orderId")));
 
+        if (orders.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NO_CONTENT, "Data not found");
+        }
+
+        return new SliceImpl<>(toOrderResponses(orders.getContent()), orders.getPageable(), orders.hasNext());
     }
 
     private String handleOrderCode() {
@@ -161,6 +168,57 @@ public class OrderServiceImpl implements OrderService {
         return formatter.format(currentDateTime);
     }
 
+    // three queries for any number of orders: the order rows, then the detail and payment rows of all of them
+    private List<OrderResponse> toOrderResponses(List<OrderRepository.OrderRow> orders) {
+        List<String> orderIds = orders.stream()
+                .map(OrderRepository.OrderRow::getOrderId)
+                .collect(Collectors.toList());
+        Map<String, List<OrderDetResponse>> orderDetails = orderDetRepository.findRowsByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderDetRepository.OrderDetRow::getOrderId,
+                        Collectors.mapping(this::toOrderDetResponse, Collectors.toList())));
+        Map<String, List<PaymentResponse>> payments = paymentRepository.findRowsByOrderIdIn(orderIds).stream()
+                .collect(Collectors.groupingBy(PaymentRepository.PaymentRow::getOrderId,
+                        Collectors.mapping(this::toPaymentResponse, Collectors.toList())));
+
+        List<OrderResponse> orderResponses = new ArrayList<>();
+        for (OrderRepository.OrderRow order : orders) {
+            orderResponses.add(OrderResponse.builder()
+                    .orderId(order.getOrderId())
+                    .orderCode(order.getOrderCode())
+                    .orderDate(order.getOrderDate())
+                    .visitSchedule(order.getVisitSchedule())
+                    .visitAddress(order.getVisitAddress())
+                    .orderAmount(order.getOrderAmount())
+                    .orderStatus(order.getOrderStatus())
+                    .orderDetailList(orderDetails.getOrDefault(order.getOrderId(), Collections.emptyList()))
+                    .paymentList(payments.getOrDefault(order.getOrderId(), Collections.emptyList()))
+                    .build());
+        }
+        return orderResponses;
+    }
+
+    private OrderDetResponse toOrderDetResponse(OrderDetRepository.OrderDetRow orderDetail) {
+        return OrderDetResponse.builder()
+                .orderDetId(orderDetail.getOrderDetId())
+                .productSize(orderDetail.getProductSize())
+                .productTheme(orderDetail.getProductTheme())
+                .timeEstimation(orderDetail.getTimeEstimation())
+                .subtotal(orderDetail.getSubtotal())
+                .productId(orderDetail.getProductId())
+                .build();
+    }
+
+    private PaymentResponse toPaymentResponse(PaymentRepository.PaymentRow payment) {
+        return PaymentResponse.builder()
+                .paymentId(payment.getPaymentId())
+                .paymentDate(payment.getPaymentDate())
+                .paymentAmount(payment.getPaymentAmount())
+                .paymentMethod(payment.getPaymentMethod())
+                .paymentDetail(payment.getPaymentDetail())
+                .accountNumber(payment.getAccountNumber())
+                .build();
+    }
+
     protected OrderResponse toOrderResponse(Order order) {
         return OrderResponse.builder()
                 .orderId(order.getOrderId())
@@ -170,8 +228,32 @@ public class OrderServiceImpl implements OrderService {
                 .visitAddress(order.getVisitAddress())
                 .orderAmount(order.getOrderAmount())
                 .orderStatus(order.getOrderStatus())
-                .orderDetailList(order.getOrderDetailList())
-                .paymentList(order.getPaymentList())
+                .orderDetailList(toResponses(order.getOrderDetailList(), this::toOrderDetResponse))
+                .paymentList(toResponses(order.getPaymentList(), paymentService::toPaymentResponse))
                 .build();
     }
-}
+
+    protected OrderDetResponse toOrderDetResponse(OrderDetail orderDetail) {
+        return OrderDetResponse.builder()
+                .orderDetId(orderDetail.getOrderDetId())
+                .productSize(orderDetail.getProductSize())
+                .productTheme(orderDetail.getProductTheme())
+                .timeEstimation(orderDetail.getTimeEstimation())
+                .subtotal(orderDetail.getSubtotal())
+                .productId(orderDetail.getProduct() == null ? null : orderDetail.getProduct().getProductId())
+                .build();
+    }
+
+    // used for single-order reads and creates (listings go through toOrderResponses); mapped inside the transaction,
+    // since open-session-in-view is off; null for an order just created
+    private static <T, R> List<R> toResponses(List<T> lazyList, Function<T, R> mapper) {
+        if (lazyList == null) {
+            return null;
+        }
+        List<R> responses = new ArrayList<>(lazyList.size());
+        for (T item : lazyList) {
+            responses.add(mapper.apply(item));
+        }
+        return responses;
+    }
+}
\ No newline at end of file
@@ -2,17 +2,17 @@ package com.fitriarien.instudio.service.impl;
 
 import com.fitriarien.instudio.entity.Order;
 import com.fitriarien.instudio.entity.Payment;
-import com.fitriarien.instudio.entity.User;
 import com.fitriarien.instudio.model.request.CreatePaymentRequest;
 import com.fitriarien.instudio.model.response.OrderResponse;
 import com.fitriarien.instudio.model.response.PaymentResponse;
 import com.fitriarien.instudio.repository.OrderRepository;
 import com.fitriarien.instudio.repository.PaymentRepository;
-import com.fitriarien.instudio.repository.UserRepository;
+import com.fitriarien.instudio.service.CurrentUser;
 import com.fitriarien.instudio.service.PaymentService;
 import com.fitriarien.instudio.service.ValidationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -28,21 +28,17 @@ public class PaymentServiceImpl implements PaymentService {
     @Autowired
     private OrderRepository orderRepository;
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUser currentUser;
     @Autowired
     private ValidationService validationService;
 
     @Override
+    @PreAuthorize("hasRole('CUSTOMER')")
     @Transactional
     public PaymentResponse create(String userId, String orderId, CreatePaymentRequest request) {
         validationService.validate(request);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-
-        if (!user.getRole().equalsIgnoreCase("customer") || user.getStatus() == 0) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to order.");
-        }
+        currentUser.require(userId);
 
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
@@ -57,7 +53,7 @@ public class PaymentServiceImpl implements PaymentService {
         payment.setOrder(order);
 
         paymentRepository.save(payment);
-        return toResponse(payment);
+        return toPaymentResponse(payment);
     }
 
     private String handlePaymentDate() {
@@ -66,7 +62,7 @@ public class PaymentServiceImpl implements PaymentService {
         return formatter.format(currentDateTime);
     }
 
-    private PaymentResponse toResponse(Payment payment) {
+    protected PaymentResponse toPaymentResponse(Payment payment) {
         return PaymentResponse.builder()
                 .paymentId(payment.getPaymentId())
                 .paymentDate(payment.getPaymentDate())
@@ -1,33 +1,32 @@
 package com.fitriarien.instudio.service.impl;
 
 import com.fitriarien.instudio.entity.Product;
-import com.fitriarien.instudio.entity.User;
 import com.fitriarien.instudio.model.request.CreateProductRequest;
 import com.fitriarien.instudio.model.request.UpdateProductRequest;
 import com.fitriarien.instudio.model.response.ProductResponse;
-import com.fitriarien.instudio.model.response.UserResponse;
 import com.fitriarien.instudio.repository.ProductRepository;
-import com.fitriarien.instudio.repository.UserRepository;
+import com.fitriarien.instudio.service.CurrentUser;
+import com.fitriarien.instudio.service.ProductCatalogCache;
 import com.fitriarien.instudio.service.ProductService;
 import com.fitriarien.instudio.service.ValidationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.util.Predicates;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -40,43 +39,39 @@ public class ProductServiceImpl implements ProductService {
     private ValidationService validationService;
 
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUser currentUser;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
 
-    @Transactional
     @Override
     public List<ProductResponse> getList() {
-        List<Product> productList = productRepository.findAll();
+        ProductCatalogCache.Catalog catalog = productCatalogCache.get();
 
-        if (productList.isEmpty()) {
+        if (catalog.getActive().isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, "Data is empty.");
         }
 
-        return productList.stream()
-                .filter(product -> product.getProductStatus() != 0)
-                .map(this::toProductResponse)
-                .collect(Collectors.toList());
+        return catalog.getActive();
     }
 
-    @Transactional
     @Override
     public ProductResponse get(String id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+        ProductResponse product = productCatalogCache.get().get(id);
+        if (product == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
 
-        return toProductResponse(product);
+        return product;
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
     @Transactional
     @Override
     public ProductResponse create(String userId, CreateProductRequest request) {
         validationService.validate(request);
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Unauthorized"));
-
-        if (!user.getRole().equalsIgnoreCase("admin") && user.getStatus() == 0) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to create product.");
-        }
+        currentUser.require(userId);
 
         log.info("Creating product...");
 
@@ -86,20 +81,17 @@ public class ProductServiceImpl implements ProductService {
         product.setProductModel(request.getProductModel());
         product.setCostEstimation(request.getCostEstimation());
         product.setProductStatus(1L);
-        product.setUser(user);
+        product.setUser(currentUser.getReference());
 
-        productRepository.save(product);
-        return toProductResponse(product);
+        saveProduct(product);
+        return ProductCatalogCache.toProductResponse(product);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
     @Transactional
     @Override
     public ProductResponse update(String productId, String userId, UpdateProductRequest request) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        if (!user.getRole().equalsIgnoreCase("admin") && user.getStatus() == 0) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to update product.");
-        }
+        currentUser.require(userId);
 
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
@@ -113,18 +105,15 @@ public class ProductServiceImpl implements ProductService {
             product.setCostEstimation(request.getCostEstimation());
         }
 
-        productRepository.save(product);
-        return toProductResponse(product);
+        saveProduct(product);
+        return ProductCatalogCache.toProductResponse(product);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
     @Transactional
     @Override
     public void delete(String productId, String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        if (!user.getRole().equalsIgnoreCase("admin") && user.getStatus() == 0) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User does not have permission to delete product.");
-        }
+        currentUser.require(userId);
 
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
@@ -133,34 +122,50 @@ public class ProductServiceImpl implements ProductService {
         productRepository.save(product);
     }
 
-    @Transactional
+    private void saveProduct(Product product) {
+        try {
+            productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            // product names are unique, so the index can resolve them to a single product
+            throw new ResponseStatusException(HttpStatus.IM_USED, "Product name has been already used. Please change the product name.");
+        }
+    }
+
     @Override
     public Page<ProductResponse> getByPage(int page, int size) {
-        Specification<Product> specification = Specification.where((root, query, criteriaBuilder) ->
-            criteriaBuilder.notEqual(root.get("productStatus"), 0));
-
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productRepository.findAll(specification, pageable);
+        Page<ProductResponse> products = productCatalogCache.get().getPage(page, size);
 
         if (products.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NO_CONTENT, "Data is empty.");
         }
 
-        List<ProductResponse> responseList = products.getContent().stream()
-                .map(this::toProductResponse)
-                .collect(Collectors.toList());
+        return products;
+    }
+
+    // the catalog already knows its size, so this only saves the client the total
+    @Override
+    public Slice<ProductResponse> getSliceByPage(int page, int size) {
+        Page<ProductResponse> products = getByPage(page, size);
+        return new SliceImpl<>(products.getContent(), products.getPageable(), products.hasNext());
+    }
+
+    @Override
+    public Slice<ProductResponse> getAfter(String productId, int size) {
+        Slice<ProductResponse> products = productCatalogCache.get().getAfter(productId, size);
 
-        return new PageImpl<>(responseList, pageable, products.getTotalElements());
+        if (products.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NO_CONTENT, "Data is empty.");
+        }
+
+        return products;
     }
 
-    protected ProductResponse toProductResponse(Product product) {
-        return ProductResponse.builder()
-                .productId(product.getProductId())
-                .productName(product.getProductName())
-                .productModel(product.getProductModel())
-                .costEstimation(product.getCostEstimation())
-                .productStatus(product.getProductStatus())
-                .userId(product.getUser().getId())
-                .build();
+    // reloads this node only; the others pick the change up within cache.products.catalog-ttl-ms
+    @PreAuthorize("hasRole('ADMIN')")
+    @Override
+    public Map<String, Object> reloadCatalog() {
+        productCatalogCache.invalidate();
+        productCatalogCache.load();
+        return productCatalogCache.getMetrics();
     }
 }
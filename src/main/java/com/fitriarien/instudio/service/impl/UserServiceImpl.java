@@ -4,6 +4,8 @@ import com.fitriarien.instudio.entity.User;
 import com.fitriarien.instudio.model.request.UpdateUserRequest;
 import com.fitriarien.instudio.model.response.UserResponse;
 import com.fitriarien.instudio.repository.UserRepository;
+import com.fitriarien.instudio.service.TokenVersionService;
+import com.fitriarien.instudio.service.UserCache;
 import com.fitriarien.instudio.service.UserService;
 import com.fitriarien.instudio.service.ValidationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,10 +23,16 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private ValidationService validationService;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private UserCache userCache;
+
     @Override
     @Transactional(readOnly = true)
     public UserResponse get(String id) {
-        User user = userRepository.findById(id)
+        User user = userCache.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found."));
 
         return toUserResponse(user);
@@ -52,6 +60,7 @@ public class UserServiceImpl implements UserService {
         }
 
         userRepository.save(user);
+        tokenVersionService.invalidate(id);
         return toUserResponse(user);
     }
 
@@ -62,7 +71,10 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found."));
 
         user.setStatus(0L);
+        // sign the user out everywhere instead of letting issued tokens live until they expire
+        user.setTokenVersion(TokenVersionService.versionOf(user) + 1);
         userRepository.save(user);
+        tokenVersionService.invalidate(id);
     }
 
     private UserResponse toUserResponse(User user) {
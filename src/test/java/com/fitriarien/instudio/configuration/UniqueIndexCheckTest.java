@@ -0,0 +1,55 @@
+package com.fitriarien.instudio.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = "jwt.secret=fitriarien")
+class UniqueIndexCheckTest {
+
+    @Autowired
+    private UniqueIndexCheck uniqueIndexCheck;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE username = ?", "duplicate1");
+    }
+
+    @Test
+    void testPassesWhenIndexesExist() {
+        assertDoesNotThrow(uniqueIndexCheck::check);
+    }
+
+    @Test
+    void testFailsWhenUsernameIndexIsMissing() {
+        // what ddl-auto=update leaves behind when the column already held duplicates
+        jdbcTemplate.execute("ALTER TABLE users DROP INDEX uk_users_username");
+        try {
+            insertUser("duplicate1");
+            insertUser("duplicate1");
+
+            IllegalStateException e = assertThrows(IllegalStateException.class, uniqueIndexCheck::check);
+            assertTrue(e.getMessage().contains("uk_users_username"));
+            assertTrue(e.getMessage().contains("duplicate1"));
+        } finally {
+            jdbcTemplate.update("DELETE FROM users WHERE username = ?", "duplicate1");
+            jdbcTemplate.execute("CREATE UNIQUE INDEX uk_users_username ON users (username)");
+        }
+    }
+
+    private void insertUser(String username) {
+        jdbcTemplate.update("INSERT INTO users (id, username, password, name, role, email, phone, address, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID().toString(), username, "x", "Duplicate", "customer", "duplicate@example.com", "0", "Jakarta", 1L);
+    }
+}
@@ -0,0 +1,53 @@
+package com.fitriarien.instudio.controller;
+
+import com.fitriarien.instudio.model.request.LoginUserRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// runs against the embedded server, since X-Forwarded-For is resolved by Tomcat's valve which MockMvc bypasses
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "jwt.secret=fitriarien",
+        "security.login.throttle.ip.capacity=2",
+        "security.login.throttle.ip.refill-per-minute=1"
+})
+class AuthControllerForwardedForTest {
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void testLoginThrottledPerForwardedClient() {
+        assertEquals(HttpStatus.UNAUTHORIZED, login("203.0.113.10").getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, login("203.0.113.10").getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, login("203.0.113.10").getStatusCode());
+
+        // same proxy, different client: its own bucket
+        assertEquals(HttpStatus.UNAUTHORIZED, login("203.0.113.20").getStatusCode());
+    }
+
+    private ResponseEntity<String> login(String clientIp) {
+        // a fresh username each time, so only the per-IP bucket is exercised
+        LoginUserRequest request = new LoginUserRequest();
+        request.setUsername("forwarded-" + UUID.randomUUID());
+        request.setPassword("wrong");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.set("X-Forwarded-For", clientIp);
+        return restTemplate.postForEntity("/api/auth/login", new HttpEntity<>(request, headers), String.class);
+    }
+}
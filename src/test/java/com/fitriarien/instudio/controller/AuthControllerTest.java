@@ -2,22 +2,29 @@ package com.fitriarien.instudio.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitriarien.instudio.configuration.JwtTokenUtil;
 import com.fitriarien.instudio.entity.User;
 import com.fitriarien.instudio.model.request.LoginUserRequest;
+import com.fitriarien.instudio.model.request.RefreshTokenRequest;
 import com.fitriarien.instudio.model.request.RegisterUserRequest;
 import com.fitriarien.instudio.model.response.GenerateResponse;
 import com.fitriarien.instudio.model.response.TokenResponse;
 import com.fitriarien.instudio.model.response.UserResponse;
 import com.fitriarien.instudio.repository.UserRepository;
+import com.fitriarien.instudio.service.impl.AuthServiceImpl;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.UUID;
 
@@ -42,6 +49,12 @@ class AuthControllerTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AuthServiceImpl authService;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
     @BeforeEach
     void setUp() {
         userRepository.deleteAll();
@@ -238,4 +251,212 @@ class AuthControllerTest {
             assertEquals(userDb.getStatus(), response.getData().getStatus());
         });
     }
+
+    @Test
+    void testLoginThrottledAfterRepeatedAttempts() throws Exception {
+        LoginUserRequest request = new LoginUserRequest();
+        request.setUsername("throttled");
+        request.setPassword("wrong");
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(
+                    post("/api/auth/login")
+                            .with(servletRequest -> {
+                                servletRequest.setRemoteAddr("10.0.0.12");
+                                return servletRequest;
+                            })
+                            .accept(MediaType.APPLICATION_JSON)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request))
+            ).andExpect(
+                    status().isUnauthorized()
+            );
+        }
+
+        mockMvc.perform(
+                post("/api/auth/login")
+                        .with(servletRequest -> {
+                            servletRequest.setRemoteAddr("10.0.0.12");
+                            return servletRequest;
+                        })
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+        ).andExpect(
+                status().isTooManyRequests()
+        ).andExpect(
+                header().exists(HttpHeaders.RETRY_AFTER)
+        ).andDo(result -> {
+            GenerateResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertNotNull(response.getErrors());
+        });
+    }
+
+    @Test
+    void testLoginUpgradesLegacyPasswordHash() throws Exception {
+        User user = userRepository.findByUsername("admin1");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("rahasia"));
+        userRepository.save(user);
+
+        LoginUserRequest request = new LoginUserRequest();
+        request.setUsername("admin1");
+        request.setPassword("rahasia");
+
+        mockMvc.perform(
+                post("/api/auth/login")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+        ).andExpect(
+                status().isOk()
+        );
+
+        User userDb = userRepository.findByUsername("admin1");
+        assertTrue(userDb.getPassword().startsWith("{bcrypt}"));
+        assertFalse(passwordEncoder.upgradeEncoding(userDb.getPassword()));
+        assertTrue(passwordEncoder.matches("rahasia", userDb.getPassword()));
+    }
+
+    @Test
+    void testRefreshRotatesTokenAndRejectsReuse() throws Exception {
+        LoginUserRequest request = new LoginUserRequest();
+        request.setUsername("admin1");
+        request.setPassword("rahasia");
+
+        MvcResult loginResult = mockMvc.perform(
+                post("/api/auth/login")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+        ).andExpect(
+                status().isOk()
+        ).andReturn();
+        GenerateResponse<TokenResponse> loginResponse = objectMapper.readValue(loginResult.getResponse().getContentAsString(), new TypeReference<>() {
+        });
+        String firstRefreshToken = loginResponse.getData().getRefreshToken();
+        assertNotNull(firstRefreshToken);
+
+        MvcResult refreshResult = mockMvc.perform(
+                post("/api/auth/refresh")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(firstRefreshToken)))
+        ).andExpect(
+                status().isOk()
+        ).andReturn();
+        GenerateResponse<TokenResponse> refreshResponse = objectMapper.readValue(refreshResult.getResponse().getContentAsString(), new TypeReference<>() {
+        });
+        assertNull(refreshResponse.getErrors());
+        assertNotNull(refreshResponse.getData().getToken());
+        String secondRefreshToken = refreshResponse.getData().getRefreshToken();
+        assertNotEquals(firstRefreshToken, secondRefreshToken);
+
+        // replaying the rotated token revokes the whole family, including its successor
+        mockMvc.perform(
+                post("/api/auth/refresh")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(firstRefreshToken)))
+        ).andExpect(
+                status().isUnauthorized()
+        );
+
+        mockMvc.perform(
+                post("/api/auth/refresh")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest(secondRefreshToken)))
+        ).andExpect(
+                status().isUnauthorized()
+        );
+    }
+
+    @Test
+    void testLogoutRevokesToken() throws Exception {
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        User user = userRepository.findByUsername("admin1");
+
+        mockMvc.perform(
+                post("/api/auth/logout")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        );
+
+        mockMvc.perform(
+                get("/api/users/" + user.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isUnauthorized()
+        );
+    }
+
+    @Test
+    void testLogoutRevokesReEncodedToken() throws Exception {
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        User user = userRepository.findByUsername("admin1");
+
+        mockMvc.perform(
+                post("/api/auth/logout")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        );
+
+        // the parser accepts all of these as the same signature
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        char last = token.charAt(token.length() - 1);
+        String[] reEncoded = {
+                token + "==",
+                token.replace('-', '+').replace('_', '/'),
+                token.substring(0, token.length() - 1) + alphabet.charAt(alphabet.indexOf(last) ^ 1)
+        };
+        for (String variant : reEncoded) {
+            assertNotEquals(JwtTokenUtil.digest(token), JwtTokenUtil.digest(variant));
+            assertEquals(jwtTokenUtil.getUsernameFromToken(token), jwtTokenUtil.getUsernameFromToken(variant));
+
+            mockMvc.perform(
+                    get("/api/users/" + user.getId())
+                            .accept(MediaType.APPLICATION_JSON)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + variant)
+            ).andExpect(
+                    status().isUnauthorized()
+            );
+        }
+    }
+
+    @Test
+    void testLogoutAllRevokesIssuedTokens() throws Exception {
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        User user = userRepository.findByUsername("admin1");
+
+        mockMvc.perform(
+                post("/api/auth/logout/all")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        );
+
+        mockMvc.perform(
+                get("/api/users/" + user.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isUnauthorized()
+        );
+
+        User userDb = userRepository.findByUsername("admin1");
+        assertEquals(1, userDb.getTokenVersion());
+    }
 }
\ No newline at end of file
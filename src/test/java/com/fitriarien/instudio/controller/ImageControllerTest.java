@@ -12,6 +12,7 @@ import com.fitriarien.instudio.model.response.ImageResponse;
 import com.fitriarien.instudio.repository.ImageRepository;
 import com.fitriarien.instudio.repository.ProductRepository;
 import com.fitriarien.instudio.repository.UserRepository;
+import com.fitriarien.instudio.service.ProductNameIndex;
 import com.fitriarien.instudio.service.impl.AuthServiceImpl;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,14 +21,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -54,6 +59,10 @@ class ImageControllerTest {
     private AuthServiceImpl authService;
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
+    @Autowired
+    private ProductNameIndex productNameIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     @BeforeEach
     void setUp() {
@@ -241,6 +250,41 @@ class ImageControllerTest {
         });
     }
 
+    @Test
+    void testUploadImageProductCreatedElsewhere() throws Exception{
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        User user = userRepository.findByUsername("admin1");
+
+        // load the name index, then add a product it doesn't hear about, as if written by another node
+        productNameIndex.findId("Kitchen Set A");
+        String productId = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO products (product_id, product_name, product_model, cost_estimation, product_status, user_id) VALUES (?, ?, ?, ?, ?, ?)",
+                productId, "Kitchen Set B", "Letter U", 20000000D, 1L, user.getId());
+
+        UploadImageRequest request = new UploadImageRequest();
+        request.setImageAlt("kitchen-set-B");
+        request.setImagePath("www.example.com");
+        request.setProductName("Kitchen Set B");
+
+        mockMvc.perform(
+                post("/api/images/users/" + user.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        ).andDo(result -> {
+            GenerateResponse<ImageResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(productId, response.getData().getProductId());
+        });
+    }
+
     @Test
     void testDeleteImageUserNotFound() throws Exception{
         UserDetails userDetails = authService.loadUserByUsername("admin1");
@@ -534,4 +578,123 @@ class ImageControllerTest {
             assertEquals(10, responses.getPaging().getSize());
         });
     }
+
+    @Test
+    void testGetImagesByPageWithoutTotal() throws Exception{
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        User user = userRepository.findByUsername("admin1");
+        Product product = productRepository.findByProductName("Kitchen Set A");
+
+        Image image = new Image();
+        for (int i = 0; i < 15; i++) {
+            image.setImageId(UUID.randomUUID().toString());
+            image.setImageAlt("kitchen-set-" + (i+1));
+            image.setImagePath("www.example" + (i+1) + ".com");
+            image.setImageStatus(1L);
+            image.setProduct(product);
+            image.setUser(user);
+            imageRepository.save(image);
+        }
+
+        mockMvc.perform(
+                get("/api/images")
+                        .queryParam("page", "0")
+                        .queryParam("size", "10")
+                        .queryParam("withTotal", "false")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        ).andDo(result -> {
+            GenerateResponse<List<ImageResponse>> responses = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertNull(responses.getErrors());
+            assertEquals(10, responses.getData().size());
+            assertEquals(0, responses.getPaging().getCurrentPage());
+            assertNull(responses.getPaging().getTotalPage());
+            assertTrue(responses.getPaging().isHasNext());
+        });
+    }
+
+    @Test
+    void testGetImagesByCursorSuccess() throws Exception{
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        User user = userRepository.findByUsername("admin1");
+        Product product = productRepository.findByProductName("Kitchen Set A");
+
+        Image image = new Image();
+        for (int i = 0; i < 15; i++) {
+            image.setImageId(UUID.randomUUID().toString());
+            image.setImageAlt("kitchen-set-" + (i+1));
+            image.setImagePath("www.example" + (i+1) + ".com");
+            image.setImageStatus(1L);
+            image.setProduct(product);
+            image.setUser(user);
+            imageRepository.save(image);
+        }
+
+        MvcResult first = mockMvc.perform(
+                get("/api/images")
+                        .queryParam("page", "0")
+                        .queryParam("size", "10")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        ).andReturn();
+
+        GenerateResponse<List<ImageResponse>> firstResponse = objectMapper.readValue(first.getResponse().getContentAsString(), new TypeReference<>() {
+        });
+        assertEquals(10, firstResponse.getData().size());
+        assertNotNull(firstResponse.getPaging().getNext());
+        Set<String> seen = firstResponse.getData().stream()
+                .map(ImageResponse::getImageId)
+                .collect(Collectors.toSet());
+
+        mockMvc.perform(
+                get("/api/images")
+                        .queryParam("cursor", firstResponse.getPaging().getNext())
+                        .queryParam("size", "10")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        ).andDo(result -> {
+            GenerateResponse<List<ImageResponse>> responses = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertNull(responses.getErrors());
+            assertEquals(5, responses.getData().size());
+            assertTrue(responses.getData().stream().noneMatch(i -> seen.contains(i.getImageId())));
+            assertNull(responses.getPaging().getCurrentPage());
+            assertNull(responses.getPaging().getNext());
+        });
+    }
+
+    @Test
+    void testGetImagesByCursorInvalid() throws Exception{
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        mockMvc.perform(
+                get("/api/images")
+                        .queryParam("cursor", "not a cursor!")
+                        .queryParam("size", "10")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isBadRequest()
+        ).andDo(result -> {
+            GenerateResponse<String> responses = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertNotNull(responses.getErrors());
+        });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.fitriarien.instudio.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitriarien.instudio.configuration.JwtTokenUtil;
+import com.fitriarien.instudio.entity.User;
+import com.fitriarien.instudio.model.response.GenerateResponse;
+import com.fitriarien.instudio.repository.UserRepository;
+import com.fitriarien.instudio.service.impl.AuthServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "jwt.secret=fitriarien")
+class MetricsControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private AuthServiceImpl authService;
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+
+        User user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setUsername("admin1");
+        user.setPassword(passwordEncoder.encode("rahasia"));
+        user.setRole("admin");
+        user.setName("Admin 1");
+        user.setEmail("admin1@example.com");
+        user.setPhone("903859173");
+        user.setAddress("Jakarta");
+        user.setStatus(1L);
+        userRepository.save(user);
+
+        user = new User();
+        user.setId(UUID.randomUUID().toString());
+        user.setUsername("person1");
+        user.setPassword(passwordEncoder.encode("rahasia"));
+        user.setRole("customer");
+        user.setName("Person 1");
+        user.setEmail("person1@example.com");
+        user.setPhone("903859173");
+        user.setAddress("Jakarta");
+        user.setStatus(1L);
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testGetMetricsAdmin() throws Exception {
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        mockMvc.perform(
+                get("/api/metrics")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        ).andDo(result -> {
+            GenerateResponse<Map<String, Map<String, Object>>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertNull(response.getErrors());
+            assertTrue(response.getData().containsKey("tokenBlacklist"));
+        });
+    }
+
+    @Test
+    void testGetMetricsForbiddenCustomer() throws Exception {
+        UserDetails userDetails = authService.loadUserByUsername("person1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        mockMvc.perform(
+                get("/api/metrics")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isForbidden()
+        );
+    }
+}
@@ -4,13 +4,19 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fitriarien.instudio.configuration.JwtTokenUtil;
 import com.fitriarien.instudio.entity.Order;
+import com.fitriarien.instudio.entity.OrderDetail;
+import com.fitriarien.instudio.entity.Payment;
 import com.fitriarien.instudio.entity.User;
 import com.fitriarien.instudio.model.request.CreateOrderRequest;
 import com.fitriarien.instudio.model.response.GenerateResponse;
 import com.fitriarien.instudio.model.response.OrderResponse;
+import com.fitriarien.instudio.repository.OrderDetRepository;
 import com.fitriarien.instudio.repository.OrderRepository;
+import com.fitriarien.instudio.repository.PaymentRepository;
 import com.fitriarien.instudio.repository.UserRepository;
 import com.fitriarien.instudio.service.impl.AuthServiceImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,9 +29,13 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -34,13 +44,23 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest
 @AutoConfigureMockMvc
-@TestPropertySource(properties = "jwt.secret=fitriarien")
+@TestPropertySource(properties = {
+        "jwt.secret=fitriarien",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
 class OrderControllerTest {
     @Autowired
     private MockMvc mockMvc;
     @Autowired
     private OrderRepository orderRepository;
     @Autowired
+    private OrderDetRepository orderDetRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
     private UserRepository userRepository;
     @Autowired
     private ObjectMapper objectMapper;
@@ -53,6 +73,8 @@ class OrderControllerTest {
 
     @BeforeEach
     void setUp() {
+        orderDetRepository.deleteAll();
+        paymentRepository.deleteAll();
         orderRepository.deleteAll();
         userRepository.deleteAll();
 
@@ -83,6 +105,8 @@ class OrderControllerTest {
 
     @AfterEach
     void tearDown() {
+        orderDetRepository.deleteAll();
+        paymentRepository.deleteAll();
         orderRepository.deleteAll();
         userRepository.deleteAll();
     }
@@ -238,6 +262,38 @@ class OrderControllerTest {
         });
     }
 
+    @Test
+    void testGetOrderByUserOtherUsersPath() throws Exception {
+        User other = new User();
+        other.setId(UUID.randomUUID().toString());
+        other.setUsername("person2");
+        other.setPassword(passwordEncoder.encode("rahasia"));
+        other.setRole("customer");
+        other.setName("Person 2");
+        other.setEmail("person2@example.com");
+        other.setPhone("903859173");
+        other.setAddress("Jakarta");
+        other.setStatus(1L);
+        userRepository.save(other);
+
+        // an active customer's token on another active customer's path
+        UserDetails userDetails = authService.loadUserByUsername("person1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        mockMvc.perform(
+                get("/api/orders/users/" + other.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isForbidden()
+        ).andDo(result -> {
+            GenerateResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertNotNull(response.getErrors());
+        });
+    }
+
     @Test
     void testGetOrderByUserEmpty() throws Exception {
         UserDetails userDetails = authService.loadUserByUsername("person1");
@@ -539,9 +595,85 @@ class OrderControllerTest {
         });
     }
 
+    @Test
+    void testGetAllOrdersRunsConstantNumberOfQueries() throws Exception {
+        UserDetails userDetails = authService.loadUserByUsername("person1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+        User user = userRepository.findByUsername("person1");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        saveOrdersWithDetails(user, 0, 2);
+        getAllOrders(user, token, 2);   // warm up the caches the security filter reads through
+        statistics.clear();
+        getAllOrders(user, token, 2);
+        long fewOrders = statistics.getPrepareStatementCount();
+
+        saveOrdersWithDetails(user, 2, 8);
+        statistics.clear();
+        getAllOrders(user, token, 10);
+        long manyOrders = statistics.getPrepareStatementCount();
+
+        assertEquals(fewOrders, manyOrders);
+    }
+
+    private void getAllOrders(User user, String token, int expected) throws Exception {
+        mockMvc.perform(
+                get("/api/orders/all/users/"+user.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        ).andDo(result -> {
+            GenerateResponse<List<OrderResponse>> responses = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertEquals(expected, responses.getData().size());
+            responses.getData().forEach(response -> {
+                assertEquals(2, response.getOrderDetailList().size());
+                assertEquals(1, response.getPaymentList().size());
+            });
+        });
+    }
+
+    private void saveOrdersWithDetails(User user, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            Order order = new Order();
+            order.setOrderId(UUID.randomUUID().toString());
+            order.setOrderCode("TR" + (i+1));
+            order.setOrderDate("2023-06-23 18:32:30");
+            order.setVisitSchedule("2023-07-02 10:00:00");
+            order.setVisitAddress("Jakarta");
+            order.setOrderAmount(0D);
+            order.setOrderStatus(0L);
+            order.setUser(user);
+            orderRepository.save(order);
+
+            for (int j = 0; j < 2; j++) {
+                OrderDetail orderDetail = new OrderDetail();
+                orderDetail.setOrderDetId(UUID.randomUUID().toString());
+                orderDetail.setOrder(order);
+                orderDetail.setProductSize(2.5D);
+                orderDetail.setProductTheme("Minimalist");
+                orderDetail.setTimeEstimation(30L);
+                orderDetail.setSubtotal(15000000D);
+                orderDetRepository.save(orderDetail);
+            }
+
+            Payment payment = new Payment();
+            payment.setPaymentId(UUID.randomUUID().toString());
+            payment.setPaymentDate("2023-06-24 10:00:00");
+            payment.setPaymentAmount(15000000D);
+            payment.setPaymentMethod("Transfer");
+            payment.setPaymentDetail("Down payment");
+            payment.setAccountNumber("1234567890");
+            payment.setOrder(order);
+            paymentRepository.save(payment);
+        }
+    }
+
     @Test
     void testGetOrdersByPageNotFoundUser() throws Exception{
-        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        UserDetails userDetails = authService.loadUserByUsername("person1");
         String token = jwtTokenUtil.generateToken(userDetails);
 
         mockMvc.perform(
@@ -671,4 +803,80 @@ class OrderControllerTest {
             assertEquals(10, response.getPaging().getSize());
         });
     }
+
+    @Test
+    void testGetOrdersByCursorSuccess() throws Exception{
+        UserDetails userDetails = authService.loadUserByUsername("person1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+        User user = userRepository.findByUsername("person1");
+
+        for (int i = 0; i < 15; i++) {
+            Order order = new Order();
+            order.setOrderId(UUID.randomUUID().toString());
+            order.setOrderCode("TR" + (i+1));
+            order.setOrderDate("2023-08-16 09:32:30");
+            order.setVisitSchedule("2023-08-27 09:00:00");
+            order.setVisitAddress("Tangerang");
+            order.setOrderAmount(0D);
+            order.setOrderStatus(0L);
+            order.setUser(user);
+            orderRepository.save(order);
+        }
+
+        MvcResult first = mockMvc.perform(
+                get("/api/orders/pageable/users/"+user.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        ).andReturn();
+
+        GenerateResponse<List<OrderResponse>> firstResponse = objectMapper.readValue(first.getResponse().getContentAsString(), new TypeReference<>() {
+        });
+        assertEquals(10, firstResponse.getData().size());
+        assertNotNull(firstResponse.getPaging().getNext());
+        Set<String> seen = firstResponse.getData().stream()
+                .map(OrderResponse::getOrderId)
+                .collect(Collectors.toSet());
+
+        mockMvc.perform(
+                get("/api/orders/pageable/users/"+user.getId())
+                        .queryParam("cursor", firstResponse.getPaging().getNext())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        ).andDo(result -> {
+            GenerateResponse<List<OrderResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertNull(response.getErrors());
+            assertEquals(5, response.getData().size());
+            assertTrue(response.getData().stream().noneMatch(o -> seen.contains(o.getOrderId())));
+            assertNull(response.getPaging().getCurrentPage());
+            assertNull(response.getPaging().getNext());
+        });
+    }
+
+    @Test
+    void testGetOrdersByCursorInvalid() throws Exception{
+        UserDetails userDetails = authService.loadUserByUsername("person1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+        User user = userRepository.findByUsername("person1");
+
+        mockMvc.perform(
+                get("/api/orders/pageable/users/"+user.getId())
+                        .queryParam("cursor", "not a cursor!")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isBadRequest()
+        ).andDo(result -> {
+            GenerateResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertNotNull(response.getErrors());
+        });
+    }
 }
\ No newline at end of file
@@ -119,9 +119,10 @@ class OrderDetControllerTest {
 
     @Test
     void testCreateOrderDetailBadRequest() throws Exception {
-        UserDetails userDetails = authService.loadUserByUsername("person1");
+        UserDetails userDetails = authService.loadUserByUsername("admin2");
         String token = jwtTokenUtil.generateToken(userDetails);
         User user = userRepository.findByUsername("person1");
+        User admin = userRepository.findByUsername("admin2");
 
         Order order = new Order();
         order.setOrderId(UUID.randomUUID().toString());
@@ -142,7 +143,7 @@ class OrderDetControllerTest {
         request.setTimeEstimation(0L);
 
         mockMvc.perform(
-                post("/api/orders/"+order.getOrderId()+"/users/" + user.getId())
+                post("/api/orders/"+order.getOrderId()+"/users/" + admin.getId())
                         .accept(MediaType.APPLICATION_JSON)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request))
@@ -158,7 +159,7 @@ class OrderDetControllerTest {
 
     @Test
     void testCreateOrderDetailNotFoundUser() throws Exception {
-        UserDetails userDetails = authService.loadUserByUsername("person1");
+        UserDetails userDetails = authService.loadUserByUsername("admin2");
         String token = jwtTokenUtil.generateToken(userDetails);
         User user = userRepository.findByUsername("person1");
 
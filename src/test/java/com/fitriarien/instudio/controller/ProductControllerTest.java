@@ -25,8 +25,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -141,6 +145,35 @@ class ProductControllerTest {
         });
     }
 
+    @Test
+    void testGetListOfProductsOnlyDeleted() throws Exception{
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        User user = userRepository.findByUsername("admin1");
+        Product product = new Product();
+        product.setProductId(UUID.randomUUID().toString());
+        product.setProductName("Kitchen Set A");
+        product.setProductModel("Letter L");
+        product.setCostEstimation(15000000D);
+        product.setProductStatus(0L);   // status not available
+        product.setUser(user);
+        productRepository.save(product);
+
+        mockMvc.perform(
+                get("/api/products/list")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isNoContent()
+        ).andDo(result -> {
+            GenerateResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertNotNull(response.getErrors());
+        });
+    }
+
     @Test
     void testGetProductNotFound() throws Exception{
         UserDetails userDetails = authService.loadUserByUsername("admin1");
@@ -270,6 +303,41 @@ class ProductControllerTest {
         });
     }
 
+    @Test
+    void testCreateProductDuplicateName() throws Exception{
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        User user = userRepository.findByUsername("admin1");
+        Product product = new Product();
+        product.setProductId(UUID.randomUUID().toString());
+        product.setProductName("Kitchen Set A");
+        product.setProductModel("Letter L");
+        product.setCostEstimation(15000000D);
+        product.setProductStatus(1L);
+        product.setUser(user);
+        productRepository.save(product);
+
+        CreateProductRequest request = new CreateProductRequest();
+        request.setProductName("Kitchen Set A");
+        request.setProductModel("Letter U");
+        request.setCostEstimation(20000000D);
+
+        mockMvc.perform(
+                post("/api/products/users/" + user.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isImUsed()
+        ).andDo(result -> {
+            GenerateResponse<String> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertNotNull(response.getErrors());
+        });
+    }
+
     @Test
     void testCreateProductSuccess() throws Exception{
         UserDetails userDetails = authService.loadUserByUsername("admin1");
@@ -626,4 +694,92 @@ class ProductControllerTest {
             assertEquals(10, response.getPaging().getSize());
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetProductsByCursorSuccess() throws Exception{
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        User user = userRepository.findByUsername("admin1");
+        Product product = new Product();
+
+        for (int i = 0; i < 15; i++) {
+            product.setProductId(UUID.randomUUID().toString());
+            product.setProductName("Kitchen Set " + (i+1));
+            product.setProductModel("Letter L");
+            product.setCostEstimation(15000000D);
+            product.setProductStatus(1L);   // status available
+            product.setUser(user);
+            productRepository.save(product);
+        }
+
+        MvcResult first = mockMvc.perform(
+                get("/api/products")
+                        .queryParam("page", "0")
+                        .queryParam("size", "10")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        ).andReturn();
+
+        GenerateResponse<List<ProductResponse>> firstResponse = objectMapper.readValue(first.getResponse().getContentAsString(), new TypeReference<>() {
+        });
+        assertEquals(10, firstResponse.getData().size());
+        assertNotNull(firstResponse.getPaging().getNext());
+        Set<String> seen = firstResponse.getData().stream()
+                .map(ProductResponse::getProductId)
+                .collect(Collectors.toSet());
+
+        mockMvc.perform(
+                get("/api/products")
+                        .queryParam("cursor", firstResponse.getPaging().getNext())
+                        .queryParam("size", "10")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        ).andDo(result -> {
+            GenerateResponse<List<ProductResponse>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+
+            assertNull(response.getErrors());
+            assertEquals(5, response.getData().size());
+            assertTrue(response.getData().stream().noneMatch(p -> seen.contains(p.getProductId())));
+            assertNull(response.getPaging().getCurrentPage());
+            assertNull(response.getPaging().getNext());
+        });
+    }
+
+    @Test
+    void testReloadProductCatalog() throws Exception{
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        User user = userRepository.findByUsername("admin1");
+        Product product = new Product();
+        product.setProductId(UUID.randomUUID().toString());
+        product.setProductName("Kitchen Set A");
+        product.setProductModel("Letter L");
+        product.setCostEstimation(15000000D);
+        product.setProductStatus(1L);
+        product.setUser(user);
+        productRepository.save(product);
+
+        mockMvc.perform(
+                post("/api/products/cache/reload")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        ).andDo(result -> {
+            GenerateResponse<Map<String, Object>> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertNull(response.getErrors());
+            assertEquals(1, response.getData().get("products"));
+            assertEquals(response.getData().get("version"), response.getData().get("loadedVersion"));
+        });
+    }
+}
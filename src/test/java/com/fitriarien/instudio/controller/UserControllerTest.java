@@ -200,6 +200,48 @@ class UserControllerTest {
         });
     }
 
+    @Test
+    void testGetUserAfterUpdateReturnsFreshData() throws Exception {
+        UserDetails userDetails = authService.loadUserByUsername("admin1");
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        User user = userRepository.findByUsername("admin1");
+
+        // warm the cache before the write
+        mockMvc.perform(
+                get("/api/users/" + user.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        );
+
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setName("Admin Baru 1");
+
+        mockMvc.perform(
+                put("/api/users/" + user.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        );
+
+        mockMvc.perform(
+                get("/api/users/" + user.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+        ).andExpect(
+                status().isOk()
+        ).andDo(result -> {
+            GenerateResponse<UserResponse> response = objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+            });
+            assertEquals("Admin Baru 1", response.getData().getName());
+        });
+    }
+
     @Test
     void testDeleteUserNotFound() throws Exception {
         UserDetails userDetails = authService.loadUserByUsername("admin1");
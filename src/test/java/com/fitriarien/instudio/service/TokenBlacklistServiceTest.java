@@ -0,0 +1,87 @@
+package com.fitriarien.instudio.service;
+
+import com.fitriarien.instudio.configuration.JwtTokenUtil;
+import com.fitriarien.instudio.configuration.UserPrincipal;
+import com.fitriarien.instudio.entity.RevokedToken;
+import com.fitriarien.instudio.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// revocations written straight to the table stand in for another node; the scheduled sync is pushed out of the way
+@SpringBootTest
+@TestPropertySource(properties = {
+        "jwt.secret=fitriarien",
+        "jwt.revocation.store=database",
+        "jwt.revocation.sync-interval-ms=3600000",
+        "jwt.revocation.sync-overlap-ms=30000"
+})
+class TokenBlacklistServiceTest {
+
+    @Autowired
+    private TokenBlacklistService tokenBlacklistService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        revokedTokenRepository.deleteAll();
+    }
+
+    @Test
+    void testSyncPicksUpRevocationCommittedWithinOverlap() {
+        long now = System.currentTimeMillis();
+        String newer = generateToken("newer1");
+        revokeOnOtherNode(newer, now);
+        tokenBlacklistService.syncFromStore();
+        assertTrue(tokenBlacklistService.isBlacklisted(newer));
+
+        // stamped before the revocation already read, but committed after it
+        String late = generateToken("late1");
+        revokeOnOtherNode(late, now - 10_000);
+        tokenBlacklistService.syncFromStore();
+        assertTrue(tokenBlacklistService.isBlacklisted(late));
+    }
+
+    @Test
+    void testSyncMissesRevocationCommittedAfterOverlap() {
+        long now = System.currentTimeMillis();
+        String newer = generateToken("newer2");
+        revokeOnOtherNode(newer, now);
+        tokenBlacklistService.syncFromStore();
+        assertTrue(tokenBlacklistService.isBlacklisted(newer));
+
+        // outside the window the store contract promises; the insert timeout keeps real revocations well inside it
+        String late = generateToken("late2");
+        revokeOnOtherNode(late, now - 60_000);
+        tokenBlacklistService.syncFromStore();
+        assertFalse(tokenBlacklistService.isBlacklisted(late));
+    }
+
+    private String generateToken(String username) {
+        return jwtTokenUtil.generateToken(new UserPrincipal(UUID.randomUUID().toString(), username, null, "customer", 1L, 0L));
+    }
+
+    private void revokeOnOtherNode(String token, long revokedAt) {
+        byte[] signature = JwtTokenUtil.getSignatureBytes(token);
+        long expiresAt = jwtTokenUtil.getExpirationDateFromToken(token).getTime();
+        revokedTokenRepository.save(new RevokedToken(null, JwtTokenUtil.digest(signature),
+                TokenBloomFilter.fingerprint(signature), expiresAt, revokedAt));
+    }
+}